@@ -1,13 +1,32 @@
 package com.restartannouncer;
 
+import com.restartannouncer.api.RestartGateRegistry;
 import com.restartannouncer.commands.AnnouncerCommand;
+import com.restartannouncer.config.ConfigSnapshot;
+import com.restartannouncer.listeners.PlayerCountListener;
 import com.restartannouncer.managers.ConfigManager;
+import com.restartannouncer.managers.EmptyServerRestartManager;
+import com.restartannouncer.managers.HotReloadManager;
 import com.restartannouncer.managers.RestartManager;
 import com.restartannouncer.managers.MessageManager;
+import com.restartannouncer.managers.PopulationHistoryManager;
 import com.restartannouncer.managers.ScheduledRestartManager;
+import com.restartannouncer.schedule.BlackoutCalendar;
+import com.restartannouncer.schedule.PopulationHistogram;
 import com.restartannouncer.util.BackupChecker;
+import com.restartannouncer.util.FlightRecorderSnapshots;
+import com.restartannouncer.util.RestartJournal;
+import com.restartannouncer.util.WriteBehindWriter;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
 
 public class RestartAnnouncerPlugin extends JavaPlugin {
@@ -17,7 +36,17 @@ public class RestartAnnouncerPlugin extends JavaPlugin {
     private RestartManager restartManager;
     private MessageManager messageManager;
     private BackupChecker backupChecker;
+    private RestartGateRegistry restartGates;
     private ScheduledRestartManager scheduledRestartManager;
+    private FlightRecorderSnapshots flightRecorder;
+    private EmptyServerRestartManager emptyServerRestartManager;
+    private PlayerCountListener playerCountListener;
+    private PopulationHistoryManager populationHistoryManager;
+    private HotReloadManager hotReloadManager;
+    private WriteBehindWriter fileWriter;
+    private RestartJournal restartJournal;
+    /** Single thread for reloads, so hot reload and /announcer reload never migrate or parse a file at the same time. */
+    private ExecutorService reloadExecutor;
     /** True when the current restart was started by scheduled restart (so we use backup delay if configured). */
     private boolean scheduledRestartActive;
     
@@ -38,7 +67,7 @@ public class RestartAnnouncerPlugin extends JavaPlugin {
         }
     }
 
-    private void runSync(Runnable task) {
+    public void runSync(Runnable task) {
         if (isFolia()) {
             try {
                 Object scheduler = getServer().getClass().getMethod("getGlobalRegionScheduler").invoke(getServer());
@@ -64,7 +93,7 @@ public class RestartAnnouncerPlugin extends JavaPlugin {
     }
 
     @SuppressWarnings("unchecked")
-    private void runAsync(Runnable task) {
+    public void runAsync(Runnable task) {
         if (isFolia()) {
             try {
                 Object async = getServer().getClass().getMethod("getAsyncScheduler").invoke(getServer());
@@ -75,16 +104,39 @@ public class RestartAnnouncerPlugin extends JavaPlugin {
         }
         getServer().getScheduler().runTaskAsynchronously(this, task);
     }
+
+    /**
+     * Run a reload (migration, file I/O, parsing) off the main thread. Reloads run one at a time in the order they
+     * were asked for; after onDisable they are dropped.
+     */
+    public void runReload(Runnable task) {
+        try {
+            reloadExecutor.execute(task);
+        } catch (RejectedExecutionException ignored) {
+        }
+    }
     
     @Override
     public void onEnable() {
         instance = this;
         
         // Initialize managers
+        this.fileWriter = new WriteBehindWriter(this);
+        this.reloadExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "RestartAnnouncer-Reload");
+            t.setDaemon(true);
+            return t;
+        });
         this.configManager = new ConfigManager(this);
         this.messageManager = new MessageManager(this);
         this.restartManager = new RestartManager(this);
         this.backupChecker = new BackupChecker(this);
+        this.restartGates = new RestartGateRegistry(getLogger());
+        this.flightRecorder = new FlightRecorderSnapshots(this);
+        this.emptyServerRestartManager = new EmptyServerRestartManager(this);
+        this.populationHistoryManager = new PopulationHistoryManager(this);
+        this.hotReloadManager = new HotReloadManager(this);
+        this.restartJournal = new RestartJournal(new File(getDataFolder(), "restarts.bin"));
 
         // Load configuration
         configManager.loadConfig();
@@ -95,11 +147,32 @@ public class RestartAnnouncerPlugin extends JavaPlugin {
         getCommand("announcer").setExecutor(announcerCommand);
         getCommand("announcer").setTabCompleter(announcerCommand);
 
+        // Track online player count from join/quit events
+        this.playerCountListener = new PlayerCountListener(this);
+        getServer().getPluginManager().registerEvents(playerCountListener, this);
+
+        // Restart gates: other plugins find the registry through the services manager; the backup wait is one gate
+        restartGates.register(this, BackupChecker.GATE_NAME, () -> scheduledRestartActive && configManager.shouldWaitForBackup()
+                ? backupChecker.getRunningBackup() : null);
+        getServer().getServicesManager().register(RestartGateRegistry.class, restartGates, this, ServicePriority.Normal);
+
+        // Restart journal: note that we are back up and how long we were down
+        recordBoot(System.currentTimeMillis());
+
+        // Population history (needed before the scheduler for AUTO recurrence)
+        applyPopulationHistoryFromConfig();
+
         // Scheduled restart (if enabled)
         applyScheduledRestartFromConfig();
 
+        // Flight Recorder ring recording (if enabled)
+        applyFlightRecorderFromConfig();
+
+        // Reload config/messages when edited on disk (if enabled)
+        applyHotReloadFromConfig();
+
         // Check for updates if enabled
-        if (configManager.getConfig().getBoolean("update-checker.enabled", true)) {
+        if (configManager.isUpdateCheckerEnabled()) {
             checkForUpdates();
         }
 
@@ -110,6 +183,15 @@ public class RestartAnnouncerPlugin extends JavaPlugin {
     
     @Override
     public void onDisable() {
+        if (hotReloadManager != null) {
+            hotReloadManager.stop();
+        }
+        if (reloadExecutor != null) {
+            reloadExecutor.shutdown();
+        }
+        if (emptyServerRestartManager != null) {
+            emptyServerRestartManager.stop();
+        }
         if (scheduledRestartManager != null) {
             scheduledRestartManager.stop();
             scheduledRestartManager = null;
@@ -117,6 +199,17 @@ public class RestartAnnouncerPlugin extends JavaPlugin {
         if (restartManager != null) {
             restartManager.stopRestart();
         }
+        if (flightRecorder != null) {
+            flightRecorder.stop();
+        }
+        if (populationHistoryManager != null) {
+            populationHistoryManager.stop();
+        }
+        getServer().getServicesManager().unregisterAll(this);
+        if (fileWriter != null) {
+            // Write config/message changes still waiting in the write-behind queue
+            fileWriter.flush();
+        }
         getLogger().info("RestartAnnouncer has been disabled!");
     }
 
@@ -135,6 +228,137 @@ public class RestartAnnouncerPlugin extends JavaPlugin {
         }
     }
     
+    /**
+     * Apply population-history from config. Starts or stops the 5-minute player count sampler.
+     * Called on enable and when /announcer reload is used (before {@link #applyScheduledRestartFromConfig()}).
+     */
+    public void applyPopulationHistoryFromConfig() {
+        if (configManager.isPopulationHistoryEnabled()) {
+            populationHistoryManager.start(configManager.getPopulationHistorySmoothing());
+        } else {
+            populationHistoryManager.stop();
+        }
+    }
+
+    /** Population history for AUTO scheduled restarts, or null when disabled. */
+    public PopulationHistogram getPopulationHistogram() {
+        return populationHistoryManager != null ? populationHistoryManager.getHistogram() : null;
+    }
+
+    /**
+     * Apply diagnostics.flight-recorder from config. Starts or stops the ring recording.
+     * Called on enable and when /announcer reload is used.
+     */
+    public void applyFlightRecorderFromConfig() {
+        if (configManager.isFlightRecorderEnabled()) {
+            flightRecorder.start(configManager.getFlightRecorderMaxAgeMinutes(), configManager.getFlightRecorderMaxSizeMb());
+        } else {
+            flightRecorder.stop();
+        }
+    }
+
+    /**
+     * Apply hot-reload from config. Starts or stops the data folder watcher.
+     * Called on enable and when /announcer reload is used.
+     */
+    public void applyHotReloadFromConfig() {
+        if (configManager.isHotReloadEnabled()) {
+            hotReloadManager.start(configManager.getHotReloadDebounceMillis(),
+                    BlackoutCalendar.calendarFile(configManager.getConfig(), getDataFolder()));
+        } else {
+            hotReloadManager.stop();
+        }
+    }
+
+    /**
+     * Make a config.yml parsed off the main thread live, then restart only the subsystems whose section changed.
+     * Used by hot reload; /announcer reload restarts everything.
+     */
+    public void publishConfig(ConfigSnapshot snapshot) {
+        FileConfiguration previous = configManager.getConfig();
+        configManager.publish(snapshot);
+        FileConfiguration loaded = snapshot.getSource();
+        boolean historyChanged = ConfigManager.sectionChanged(previous, loaded, "population-history");
+        if (historyChanged) {
+            applyPopulationHistoryFromConfig();
+        }
+        // AUTO recurrence reads the population history
+        if (historyChanged || ConfigManager.sectionChanged(previous, loaded, "scheduled-restart")) {
+            applyScheduledRestartFromConfig();
+        }
+        if (ConfigManager.sectionChanged(previous, loaded, "diagnostics")) {
+            applyFlightRecorderFromConfig();
+        }
+        if (ConfigManager.sectionChanged(previous, loaded, "locale")) {
+            messageManager.invalidateLocaleBundles();
+        }
+        // The watcher also follows the blackout calendar file named in scheduled-restart
+        if (ConfigManager.sectionChanged(previous, loaded, "hot-reload")
+                || ConfigManager.sectionChanged(previous, loaded, "scheduled-restart")) {
+            applyHotReloadFromConfig();
+        }
+    }
+
+    /**
+     * Dump the Flight Recorder ring buffer asynchronously (no-op when the recording is not running).
+     */
+    public void dumpFlightRecording(String reason) {
+        if (flightRecorder == null || !flightRecorder.isRecording()) {
+            return;
+        }
+        int keep = configManager.getFlightRecorderKeepDumps();
+        runAsync(() -> flightRecorder.dump(reason, keep));
+    }
+
+    /**
+     * Append a BOOT record carrying the downtime since the last SHUTDOWN record (unknown if the server went down some
+     * other way). Runs off the main thread.
+     */
+    private void recordBoot(long bootMillis) {
+        runAsync(() -> {
+            long downtime = -1;
+            try {
+                RestartJournal.Entry last = restartJournal.last();
+                if (last != null && last.event() == RestartJournal.Event.SHUTDOWN) {
+                    downtime = Math.max(0, bootMillis - last.timeMillis());
+                }
+            } catch (IOException e) {
+                getLogger().warning("Could not read restart journal: " + e.getMessage());
+            }
+            writeJournal(new RestartJournal.Entry(bootMillis, RestartJournal.Event.BOOT, RestartJournal.Trigger.NONE,
+                    0, 0, 0, 0, downtime));
+        });
+    }
+
+    /**
+     * Append a record to the restart journal. SHUTDOWN is written synchronously since the server is about to stop,
+     * as is anything recorded while the plugin is disabling; other events are written asynchronously.
+     */
+    public void recordRestartEvent(RestartJournal.Entry entry) {
+        if (entry.event() == RestartJournal.Event.SHUTDOWN || !isEnabled()) {
+            writeJournal(entry);
+        } else {
+            runAsync(() -> writeJournal(entry));
+        }
+    }
+
+    private void writeJournal(RestartJournal.Entry entry) {
+        try {
+            restartJournal.append(entry);
+        } catch (IOException e) {
+            getLogger().warning("Could not write restart journal (" + restartJournal.getFile().getName() + "): " + e.getMessage());
+        }
+    }
+
+    public RestartJournal getRestartJournal() {
+        return restartJournal;
+    }
+
+    /** Coalesced background saves for files changed by commands. */
+    public WriteBehindWriter getFileWriter() {
+        return fileWriter;
+    }
+
     public static RestartAnnouncerPlugin getInstance() {
         return instance;
     }
@@ -151,6 +375,29 @@ public class RestartAnnouncerPlugin extends JavaPlugin {
         return messageManager;
     }
 
+    public ScheduledRestartManager getScheduledRestartManager() {
+        return scheduledRestartManager;
+    }
+
+    public EmptyServerRestartManager getEmptyServerRestartManager() {
+        return emptyServerRestartManager;
+    }
+
+    /** Online player count maintained from join/quit events. */
+    public int getOnlineCount() {
+        return playerCountListener != null ? playerCountListener.getOnlineCount() : getServer().getOnlinePlayers().size();
+    }
+
+    /**
+     * Called by {@link PlayerCountListener} whenever a player joins or quits.
+     */
+    public void onOnlineCountChanged(int onlineCount) {
+        emptyServerRestartManager.onOnlineCountChanged(onlineCount);
+        if (scheduledRestartManager != null) {
+            scheduledRestartManager.onOnlineCountChanged(onlineCount);
+        }
+    }
+
     public void setScheduledRestartActive(boolean scheduledRestartActive) {
         this.scheduledRestartActive = scheduledRestartActive;
     }
@@ -159,8 +406,9 @@ public class RestartAnnouncerPlugin extends JavaPlugin {
         return scheduledRestartActive;
     }
 
-    public boolean isBackupRunning() {
-        return backupChecker != null && backupChecker.isBackupRunning();
+    /** Gates that can hold a restart once its countdown ends. */
+    public RestartGateRegistry getRestartGates() {
+        return restartGates;
     }
 
     /**
@@ -174,7 +422,7 @@ public class RestartAnnouncerPlugin extends JavaPlugin {
      * Public method to manually check for updates with player feedback
      */
     public void checkForUpdatesManually(org.bukkit.entity.Player player) {
-        if (configManager.getConfig().getBoolean("update-checker.enabled", true)) {
+        if (configManager.isUpdateCheckerEnabled()) {
             getLogger().info("Manually checking for updates...");
             checkForUpdates(player);
         } else {
@@ -274,10 +522,10 @@ public class RestartAnnouncerPlugin extends JavaPlugin {
      * Check if debug logging is enabled
      */
     private boolean isDebugEnabled() {
-        if (configManager == null || configManager.getConfig() == null) {
+        if (configManager == null || configManager.getSnapshot() == null) {
             return false;
         }
-        return configManager.getConfig().getBoolean("debug.enabled", false);
+        return configManager.isDebugEnabled();
     }
     
     /**
@@ -0,0 +1,122 @@
+package com.restartannouncer.api;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Lets other plugins hold a restart until their work is done, e.g. "arena match running" or "auction settling".
+ * When a countdown reaches zero every gate is asked for a future; the shutdown happens as soon as the last one
+ * completes, or when restart-gates.timeout-minutes runs out. A gate that has nothing to wait for returns null or a
+ * completed future.
+ * <p>
+ * Get it from the services manager: {@code Bukkit.getServicesManager().load(RestartGateRegistry.class)}.
+ * Gates of a disabled plugin are ignored; call {@link #unregisterAll(Plugin)} from onDisable to drop them.
+ */
+public final class RestartGateRegistry {
+
+    /**
+     * Result of {@link #await}: the gates that were still open when asked, and a future that completes (on any
+     * thread) with the gates still open at the timeout, or with an empty list once all of them completed.
+     */
+    public record Wait(List<String> pending, CompletableFuture<List<String>> completion) {
+    }
+
+    private record Gate(Plugin owner, String name, Supplier<? extends CompletableFuture<?>> supplier) {
+    }
+
+    private final Logger log;
+    /** Keyed by owner and name; registration order is kept for messages. */
+    private final Map<String, Gate> gates = new LinkedHashMap<>();
+
+    public RestartGateRegistry(Logger log) {
+        this.log = log;
+    }
+
+    /**
+     * Add a gate, replacing one with the same name from the same plugin. {@code gate} is called on the main thread
+     * when a restart is due and may return null when there is nothing to wait for.
+     */
+    public synchronized void register(Plugin owner, String name, Supplier<? extends CompletableFuture<?>> gate) {
+        if (owner == null || name == null || name.isBlank() || gate == null) {
+            throw new IllegalArgumentException("owner, name and gate are required");
+        }
+        gates.put(key(owner, name), new Gate(owner, name, gate));
+    }
+
+    public synchronized boolean unregister(Plugin owner, String name) {
+        return gates.remove(key(owner, name)) != null;
+    }
+
+    public synchronized void unregisterAll(Plugin owner) {
+        gates.values().removeIf(gate -> gate.owner().equals(owner));
+    }
+
+    /** Names of the registered gates, in registration order. */
+    public synchronized List<String> getGateNames() {
+        List<String> names = new ArrayList<>();
+        for (Gate gate : gates.values()) {
+            names.add(gate.name());
+        }
+        return names;
+    }
+
+    /**
+     * Ask every gate of an enabled plugin for its future and wait on all of them together, for at most
+     * {@code timeout}. A gate that throws, or whose future fails, no longer holds the restart. Call on the main thread.
+     */
+    public Wait await(long timeout, TimeUnit unit) {
+        List<Gate> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(gates.values());
+        }
+        Map<String, CompletableFuture<?>> open = new LinkedHashMap<>();
+        for (Gate gate : snapshot) {
+            if (!gate.owner().isEnabled()) {
+                continue;
+            }
+            CompletableFuture<?> future;
+            try {
+                future = gate.supplier().get();
+            } catch (RuntimeException e) {
+                log.warning("Restart gate '" + gate.name() + "' from " + gate.owner().getName() + " failed: " + e.getMessage() + " – ignoring it");
+                continue;
+            }
+            if (future != null && !future.isDone()) {
+                open.putIfAbsent(gate.name(), future);
+            }
+        }
+        if (open.isEmpty()) {
+            return new Wait(List.of(), CompletableFuture.completedFuture(List.of()));
+        }
+        CompletableFuture<?>[] settled = open.values().stream()
+                .map(future -> future.handle((result, error) -> null))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture<List<String>> completion = CompletableFuture.allOf(settled)
+                .thenApply(done -> List.<String>of())
+                .completeOnTimeout(null, timeout, unit)
+                .thenApply(done -> done != null ? done : stillOpen(open));
+        return new Wait(List.copyOf(open.keySet()), completion);
+    }
+
+    private static List<String> stillOpen(Map<String, CompletableFuture<?>> open) {
+        List<String> names = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<?>> entry : open.entrySet()) {
+            if (!entry.getValue().isDone()) {
+                names.add(entry.getKey());
+            }
+        }
+        return names;
+    }
+
+    private static String key(Plugin owner, String name) {
+        return owner.getName() + ":" + name;
+    }
+}
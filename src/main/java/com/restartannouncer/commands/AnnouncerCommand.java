@@ -1,22 +1,49 @@
 package com.restartannouncer.commands;
 
 import com.restartannouncer.RestartAnnouncerPlugin;
+import com.restartannouncer.config.ConfigSnapshot;
+import com.restartannouncer.managers.MessageManager;
 import com.restartannouncer.managers.RestartManager;
+import com.restartannouncer.managers.ScheduledRestartManager;
+import com.restartannouncer.messages.MessageKey;
+import com.restartannouncer.schedule.BlackoutCalendar;
+import com.restartannouncer.util.RestartJournal;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 public class AnnouncerCommand implements CommandExecutor, TabCompleter {
     
+    /** Scheduled restarts listed by /announcer status. */
+    private static final int UPCOMING_SHOWN = 3;
+    /** Events listed by /announcer history without a count, and the most it will list. */
+    private static final int HISTORY_DEFAULT = 10;
+    private static final int HISTORY_MAX = 100;
+    /** Period covered by the /announcer history statistics line. */
+    private static final int HISTORY_STATS_DAYS = 30;
+    private static final DateTimeFormatter HISTORY_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    
     private final RestartAnnouncerPlugin plugin;
+    private final AtomicBoolean reloading = new AtomicBoolean();
     
     public AnnouncerCommand(RestartAnnouncerPlugin plugin) {
         this.plugin = plugin;
@@ -66,6 +93,12 @@ public class AnnouncerCommand implements CommandExecutor, TabCompleter {
             case "set":
                 handleSet(sender, args);
                 break;
+            case "blackout":
+                handleBlackout(sender, args);
+                break;
+            case "history":
+                handleHistory(sender, args);
+                break;
             case "help":
                 if (sender instanceof Player) {
                     sendHelp((Player) sender);
@@ -89,13 +122,13 @@ public class AnnouncerCommand implements CommandExecutor, TabCompleter {
     
         private void handleStart(CommandSender sender, String[] args) {
         if (!sender.hasPermission(plugin.getConfigManager().getStartPermission())) {
-            sender.sendMessage(plugin.getMessageManager().formatMessage(plugin.getMessageManager().getCommandMessage("start", "no-permission")));
+            sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.START_NO_PERMISSION));
             return;
         }
 
         if (args.length < 2) {
-            sender.sendMessage(plugin.getMessageManager().formatMessage(plugin.getMessageManager().getCommandMessage("start", "usage")));
-            sender.sendMessage(plugin.getMessageManager().formatMessage(plugin.getMessageManager().getCommandMessage("start", "example")));
+            sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.START_USAGE));
+            sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.START_EXAMPLE));
             return;
         }
 
@@ -104,7 +137,7 @@ public class AnnouncerCommand implements CommandExecutor, TabCompleter {
         try {
             restartSeconds = RestartManager.parseTime(args[1]);
         } catch (NumberFormatException e) {
-            sender.sendMessage(plugin.getMessageManager().formatMessage(plugin.getMessageManager().getCommandMessage("start", "invalid-time")));
+            sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.START_INVALID_TIME));
             return;
         }
 
@@ -114,7 +147,7 @@ public class AnnouncerCommand implements CommandExecutor, TabCompleter {
             try {
                 intervalSeconds = RestartManager.parseTime(args[2]);
             } catch (NumberFormatException e) {
-                sender.sendMessage(plugin.getMessageManager().formatMessage(plugin.getMessageManager().getCommandMessage("start", "invalid-interval")));
+                sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.START_INVALID_INTERVAL));
                 return;
             }
         }
@@ -124,27 +157,23 @@ public class AnnouncerCommand implements CommandExecutor, TabCompleter {
         if (args.length >= 4) {
             displayType = args[3].toLowerCase();
             if (!isValidDisplayType(displayType)) {
-                sender.sendMessage(plugin.getMessageManager().formatMessage(plugin.getMessageManager().getCommandMessage("start", "invalid-display")));
+                sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.START_INVALID_DISPLAY));
                 return;
             }
         }
 
         // Check if restart is already running
         if (plugin.getRestartManager().isRunning()) {
-            sender.sendMessage(plugin.getMessageManager().formatMessage(plugin.getMessageManager().getCommandMessage("start", "already-running")));
+            sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.START_ALREADY_RUNNING));
             return;
         }
 
         // Start the restart
         if (plugin.getRestartManager().startRestart(restartSeconds, intervalSeconds, displayType)) {
-            Map<String, String> placeholders = plugin.getMessageManager().createPlaceholders(
-                "time", formatTime(restartSeconds),
-                "interval", formatTime(intervalSeconds),
-                "display", displayType
-            );
-            sender.sendMessage(plugin.getMessageManager().formatMessage(plugin.getMessageManager().getCommandMessage("start", "success", placeholders)));
+            sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.START_SUCCESS,
+                formatTime(restartSeconds), formatTime(intervalSeconds), displayType));
         } else {
-            sender.sendMessage(plugin.getMessageManager().formatMessage(plugin.getMessageManager().getCommandMessage("start", "already-running")));
+            sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.START_ALREADY_RUNNING));
         }
     }
 
@@ -156,24 +185,24 @@ public class AnnouncerCommand implements CommandExecutor, TabCompleter {
     
     private void handleStop(CommandSender sender) {
         if (!sender.hasPermission(plugin.getConfigManager().getStopPermission())) {
-            sender.sendMessage(plugin.getMessageManager().formatMessage(plugin.getMessageManager().getCommandMessage("stop", "no-permission")));
+            sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.STOP_NO_PERMISSION));
             return;
         }
         
         if (!plugin.getRestartManager().isRunning()) {
-            sender.sendMessage(plugin.getMessageManager().formatMessage(plugin.getMessageManager().getCommandMessage("stop", "not-running")));
+            sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.STOP_NOT_RUNNING));
             return;
         }
         
         plugin.getRestartManager().stopRestart();
-        sender.sendMessage(plugin.getMessageManager().formatMessage(plugin.getMessageManager().getCommandMessage("stop", "success")));
+        sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.STOP_SUCCESS));
     }
 
     private void handleStatus(CommandSender sender) {
         if (!sender.hasPermission(plugin.getConfigManager().getStatusPermission())) {
-            String message = plugin.getMessageManager().formatMessage(plugin.getMessageManager().getCommandMessage("status", "no-permission"));
+            String message = plugin.getMessageManager().getMessage(sender, MessageKey.STATUS_NO_PERMISSION);
             if (sender instanceof Player) {
-                plugin.getMessageManager().sendError((Player) sender, plugin.getMessageManager().getCommandMessage("status", "no-permission"));
+                plugin.getMessageManager().sendError((Player) sender, plugin.getMessageManager().getMessage(sender, MessageKey.STATUS_NO_PERMISSION));
             } else {
                 sender.sendMessage(message);
             }
@@ -181,46 +210,92 @@ public class AnnouncerCommand implements CommandExecutor, TabCompleter {
         }
         
         if (plugin.getRestartManager().isRunning()) {
-            Map<String, String> placeholders = plugin.getMessageManager().createPlaceholders(
-                "time", plugin.getRestartManager().getTimeRemainingFormatted()
-            );
-            String message = plugin.getMessageManager().getCommandMessage("status", "running", placeholders);
+            String message = plugin.getMessageManager().getMessage(sender, MessageKey.STATUS_RUNNING,
+                plugin.getRestartManager().getTimeRemainingFormatted());
             if (sender instanceof Player) {
                 plugin.getMessageManager().sendInfo((Player) sender, message);
             } else {
                 sender.sendMessage(plugin.getMessageManager().formatMessage(message));
             }
         } else {
-            String message = plugin.getMessageManager().getCommandMessage("status", "not-running");
+            String message = plugin.getMessageManager().getMessage(sender, MessageKey.STATUS_NOT_RUNNING);
             if (sender instanceof Player) {
                 plugin.getMessageManager().sendInfo((Player) sender, message);
             } else {
                 sender.sendMessage(plugin.getMessageManager().formatMessage(message));
             }
         }
+
+        ScheduledRestartManager scheduled = plugin.getScheduledRestartManager();
+        List<ScheduledRestartManager.Upcoming> upcoming = scheduled != null ? scheduled.getUpcoming(UPCOMING_SHOWN) : List.of();
+        if (!upcoming.isEmpty()) {
+            sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.STATUS_UPCOMING_HEADER));
+            LocalDateTime now = LocalDateTime.now();
+            for (ScheduledRestartManager.Upcoming next : upcoming) {
+                long seconds = Math.max(0, ChronoUnit.SECONDS.between(now, next.at()));
+                sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.STATUS_UPCOMING_ENTRY,
+                    next.spec().formatReminderTime(next.at()), next.spec().getName(), formatTime((int) Math.min(Integer.MAX_VALUE, seconds))));
+            }
+        }
     }
     
     private void handleReload(CommandSender sender) {
         if (!sender.hasPermission(plugin.getConfigManager().getReloadPermission())) {
-            String message = plugin.getMessageManager().formatMessage(plugin.getMessageManager().getCommandMessage("reload", "no-permission"));
+            String message = plugin.getMessageManager().getMessage(sender, MessageKey.RELOAD_NO_PERMISSION);
             if (sender instanceof Player) {
-                plugin.getMessageManager().sendError((Player) sender, plugin.getMessageManager().getCommandMessage("reload", "no-permission"));
+                plugin.getMessageManager().sendError((Player) sender, plugin.getMessageManager().getMessage(sender, MessageKey.RELOAD_NO_PERMISSION));
             } else {
                 sender.sendMessage(message);
             }
             return;
         }
         
-        plugin.getConfigManager().reloadConfig();
-        plugin.getMessageManager().reloadMessages();
-        plugin.applyScheduledRestartFromConfig();
-
-        String message = plugin.getMessageManager().getCommandMessage("reload", "success");
-        if (sender instanceof Player) {
-            plugin.getMessageManager().sendSuccess((Player) sender, message);
-        } else {
-            sender.sendMessage(plugin.getMessageManager().formatMessage(message));
+        if (!reloading.compareAndSet(false, true)) {
+            sender.sendMessage("§eA reload is already in progress.");
+            return;
         }
+        long started = System.nanoTime();
+        // Migration, file I/O and parsing off the main thread, queued behind any hot reload; the live state is only
+        // swapped once both files parsed
+        plugin.runReload(() -> {
+            ConfigSnapshot config;
+            MessageManager.PreparedMessages messages;
+            try {
+                config = plugin.getConfigManager().prepareReload();
+                messages = plugin.getMessageManager().prepareReload();
+            } catch (Exception e) {
+                plugin.runSync(() -> {
+                    reloading.set(false);
+                    plugin.getLogger().warning("Reload failed, keeping the previous configuration: " + e.getMessage());
+                    String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                    String message = plugin.getMessageManager().getMessage(sender, MessageKey.RELOAD_FAILED, error);
+                    if (sender instanceof Player) {
+                        plugin.getMessageManager().sendError((Player) sender, message);
+                    } else {
+                        sender.sendMessage(message);
+                    }
+                });
+                return;
+            }
+            plugin.runSync(() -> {
+                plugin.getConfigManager().publish(config);
+                plugin.getMessageManager().publish(messages);
+                plugin.applyPopulationHistoryFromConfig();
+                plugin.applyScheduledRestartFromConfig();
+                plugin.applyFlightRecorderFromConfig();
+                plugin.applyHotReloadFromConfig();
+                reloading.set(false);
+
+                String elapsed = String.valueOf((System.nanoTime() - started) / 1_000_000L);
+                plugin.getLogger().info("Reloaded config.yml and messages.yml in " + elapsed + " ms");
+                String message = plugin.getMessageManager().getMessage(sender, MessageKey.RELOAD_SUCCESS, elapsed);
+                if (sender instanceof Player) {
+                    plugin.getMessageManager().sendSuccess((Player) sender, message);
+                } else {
+                    sender.sendMessage(plugin.getMessageManager().formatMessage(message));
+                }
+            });
+        });
     }
     
     private void handleUpdate(CommandSender sender) {
@@ -244,9 +319,9 @@ public class AnnouncerCommand implements CommandExecutor, TabCompleter {
 
     private void handleToggle(CommandSender sender) {
         if (!sender.hasPermission(plugin.getConfigManager().getReloadPermission())) {
-            String message = plugin.getMessageManager().formatMessage(plugin.getMessageManager().getCommandMessage("reload", "no-permission"));
+            String message = plugin.getMessageManager().getMessage(sender, MessageKey.RELOAD_NO_PERMISSION);
             if (sender instanceof Player) {
-                plugin.getMessageManager().sendError((Player) sender, plugin.getMessageManager().getCommandMessage("reload", "no-permission"));
+                plugin.getMessageManager().sendError((Player) sender, plugin.getMessageManager().getMessage(sender, MessageKey.RELOAD_NO_PERMISSION));
             } else {
                 sender.sendMessage(message);
             }
@@ -256,11 +331,10 @@ public class AnnouncerCommand implements CommandExecutor, TabCompleter {
         boolean currentSetting = plugin.getConfigManager().shouldExecuteShutdown();
         boolean newSetting = !currentSetting;
         
-        plugin.getConfig().set("execute-shutdown", newSetting);
-        plugin.saveConfig();
+        plugin.getConfigManager().set("execute-shutdown", newSetting);
         
         String status = newSetting ? "enabled" : "disabled";
-        String toggleMessage = "§aExecute shutdown " + status + ". Run §e/announcer reload§a to apply changes.";
+        String toggleMessage = "§aExecute shutdown " + status + ".";
         if (sender instanceof Player) {
             plugin.getMessageManager().sendSuccess((Player) sender, toggleMessage);
         } else {
@@ -268,11 +342,162 @@ public class AnnouncerCommand implements CommandExecutor, TabCompleter {
         }
     }
     
+    /**
+     * /announcer blackout import &lt;file&gt;: validate a calendar file from the plugin folder off the main thread, make it
+     * the blackout calendar (scheduled-restart.blackouts.file) and restart the scheduler with it.
+     */
+    private void handleBlackout(CommandSender sender, String[] args) {
+        if (!sender.hasPermission(plugin.getConfigManager().getReloadPermission())) {
+            String message = plugin.getMessageManager().getMessage(sender, MessageKey.RELOAD_NO_PERMISSION);
+            if (sender instanceof Player) {
+                plugin.getMessageManager().sendError((Player) sender, message);
+            } else {
+                sender.sendMessage(message);
+            }
+            return;
+        }
+        if (args.length < 3 || !args[1].equalsIgnoreCase("import")) {
+            sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.BLACKOUT_USAGE));
+            return;
+        }
+
+        File dataFolder = plugin.getDataFolder();
+        File source = new File(dataFolder, args[2]);
+        File target = BlackoutCalendar.calendarFile(plugin.getConfigManager().getConfig(), dataFolder);
+        plugin.runAsync(() -> {
+            String error = null;
+            int count = 0;
+            try {
+                if (target == null) {
+                    error = "scheduled-restart.blackouts.file is not set";
+                } else if (!source.getCanonicalPath().startsWith(dataFolder.getCanonicalPath() + File.separator)) {
+                    error = "the file must be inside the plugin folder";
+                } else if (!source.isFile()) {
+                    error = "file not found: " + args[2];
+                } else {
+                    BlackoutCalendar.Builder builder = new BlackoutCalendar.Builder();
+                    List<String> errors = builder.addLines(Files.readAllLines(source.toPath(), StandardCharsets.UTF_8));
+                    if (!errors.isEmpty()) {
+                        error = errors.size() + " invalid line(s), first: " + errors.get(0);
+                    } else {
+                        count = builder.size();
+                        if (!source.getCanonicalFile().equals(target.getCanonicalFile())) {
+                            Files.copy(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                error = e.getMessage();
+            }
+            String failure = error;
+            int imported = count;
+            plugin.runSync(() -> {
+                if (failure != null) {
+                    String message = plugin.getMessageManager().getMessage(sender, MessageKey.BLACKOUT_IMPORT_FAILED, failure);
+                    if (sender instanceof Player) {
+                        plugin.getMessageManager().sendError((Player) sender, message);
+                    } else {
+                        sender.sendMessage(message);
+                    }
+                    return;
+                }
+                plugin.applyScheduledRestartFromConfig();
+                plugin.getLogger().info("Imported " + imported + " blackout windows from " + source.getName());
+                sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.BLACKOUT_IMPORTED,
+                    String.valueOf(imported), source.getName()));
+            });
+        });
+    }
+
+    /**
+     * /announcer history [n]: the newest n journal records and statistics for the last 30 days, read off the main
+     * thread.
+     */
+    private void handleHistory(CommandSender sender, String[] args) {
+        if (!sender.hasPermission(plugin.getConfigManager().getStatusPermission())) {
+            String message = plugin.getMessageManager().getMessage(sender, MessageKey.STATUS_NO_PERMISSION);
+            if (sender instanceof Player) {
+                plugin.getMessageManager().sendError((Player) sender, message);
+            } else {
+                sender.sendMessage(message);
+            }
+            return;
+        }
+        int count = HISTORY_DEFAULT;
+        if (args.length >= 2) {
+            try {
+                count = Math.max(1, Math.min(HISTORY_MAX, Integer.parseInt(args[1])));
+            } catch (NumberFormatException e) {
+                count = HISTORY_DEFAULT;
+            }
+        }
+        int shown = count;
+        RestartJournal journal = plugin.getRestartJournal();
+        plugin.runAsync(() -> {
+            List<RestartJournal.Entry> entries;
+            RestartJournal.Stats stats;
+            try {
+                long now = System.currentTimeMillis();
+                entries = journal.latest(shown);
+                stats = journal.stats(now - HISTORY_STATS_DAYS * 24L * 60 * 60 * 1000, now);
+            } catch (IOException e) {
+                String error = e.getMessage();
+                plugin.runSync(() -> sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.HISTORY_FAILED, error)));
+                return;
+            }
+            plugin.runSync(() -> {
+                if (entries.isEmpty()) {
+                    sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.HISTORY_EMPTY));
+                    return;
+                }
+                sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.HISTORY_HEADER, String.valueOf(entries.size())));
+                for (RestartJournal.Entry entry : entries) {
+                    String time = HISTORY_TIME.format(Instant.ofEpochMilli(entry.timeMillis()).atZone(ZoneId.systemDefault()));
+                    sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.HISTORY_ENTRY,
+                        time, historyEvent(entry), historyDetails(entry)));
+                }
+                String downtime = stats.meanDowntimeMillis() < 0 ? "unknown"
+                    : RestartManager.formatTime((int) Math.min(Integer.MAX_VALUE, stats.meanDowntimeMillis() / 1000));
+                sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.HISTORY_STATS,
+                    String.valueOf(HISTORY_STATS_DAYS), String.valueOf(stats.restarts()),
+                    String.format(Locale.ROOT, "%.1f", stats.restartsPerWeek()), downtime));
+            });
+        });
+    }
+
+    private static String historyEvent(RestartJournal.Entry entry) {
+        switch (entry.event()) {
+            case BOOT:
+                return "startup";
+            case SHUTDOWN:
+                return "restart";
+            default:
+                return "cancelled";
+        }
+    }
+
+    private static String historyDetails(RestartJournal.Entry entry) {
+        if (entry.event() == RestartJournal.Event.BOOT) {
+            return entry.downtimeMillis() < 0 ? "(downtime unknown)"
+                : "(down " + RestartManager.formatTime((int) Math.min(Integer.MAX_VALUE, entry.downtimeMillis() / 1000)) + ")";
+        }
+        String trigger = entry.trigger().name().toLowerCase(Locale.ROOT).replace('_', ' ');
+        StringBuilder details = new StringBuilder("(").append(trigger)
+            .append(entry.event() == RestartJournal.Event.SHUTDOWN ? ", countdown " : ", after ")
+            .append(RestartManager.formatTime(entry.countdownSeconds()))
+            .append(", ").append(entry.players()).append(entry.players() == 1 ? " player" : " players");
+        if (entry.isBackupDelayed() || entry.isGateDelayed()) {
+            details.append(", waited ").append(RestartManager.formatTime(entry.gateWaitSeconds()))
+                .append(entry.isGateDelayed() ? " for restart gates" : " for backup");
+        }
+        return details.append(")").toString();
+    }
+
     private void handleSet(CommandSender sender, String[] args) {
         if (!sender.hasPermission(plugin.getConfigManager().getReloadPermission())) {
-            String message = plugin.getMessageManager().formatMessage(plugin.getMessageManager().getCommandMessage("reload", "no-permission"));
+            String message = plugin.getMessageManager().getMessage(sender, MessageKey.RELOAD_NO_PERMISSION);
             if (sender instanceof Player) {
-                plugin.getMessageManager().sendError((Player) sender, plugin.getMessageManager().getCommandMessage("reload", "no-permission"));
+                plugin.getMessageManager().sendError((Player) sender, plugin.getMessageManager().getMessage(sender, MessageKey.RELOAD_NO_PERMISSION));
             } else {
                 sender.sendMessage(message);
             }
@@ -333,38 +558,42 @@ public class AnnouncerCommand implements CommandExecutor, TabCompleter {
     }
     
     private void sendHelp(Player player) {
-        plugin.getMessageManager().sendInfo(player, plugin.getMessageManager().getCommandMessage("help", "header"));
+        plugin.getMessageManager().sendInfo(player, plugin.getMessageManager().getMessage(player, MessageKey.HELP_HEADER));
         
         // Only show help for commands the player has permission to use
         if (player.hasPermission(plugin.getConfigManager().getStartPermission())) {
-            plugin.getMessageManager().sendInfo(player, plugin.getMessageManager().getCommandMessage("help", "start"));
+            plugin.getMessageManager().sendInfo(player, plugin.getMessageManager().getMessage(player, MessageKey.HELP_START));
         }
         if (player.hasPermission(plugin.getConfigManager().getStopPermission())) {
-            plugin.getMessageManager().sendInfo(player, plugin.getMessageManager().getCommandMessage("help", "stop"));
+            plugin.getMessageManager().sendInfo(player, plugin.getMessageManager().getMessage(player, MessageKey.HELP_STOP));
         }
         if (player.hasPermission(plugin.getConfigManager().getStatusPermission())) {
-            plugin.getMessageManager().sendInfo(player, plugin.getMessageManager().getCommandMessage("help", "status"));
+            plugin.getMessageManager().sendInfo(player, plugin.getMessageManager().getMessage(player, MessageKey.HELP_STATUS));
+            plugin.getMessageManager().sendInfo(player, plugin.getMessageManager().getMessage(player, MessageKey.HELP_HISTORY));
         }
         if (player.hasPermission(plugin.getConfigManager().getReloadPermission())) {
-            plugin.getMessageManager().sendInfo(player, plugin.getMessageManager().getCommandMessage("help", "toggle"));
-            plugin.getMessageManager().sendInfo(player, plugin.getMessageManager().getCommandMessage("help", "set"));
+            plugin.getMessageManager().sendInfo(player, plugin.getMessageManager().getMessage(player, MessageKey.HELP_TOGGLE));
+            plugin.getMessageManager().sendInfo(player, plugin.getMessageManager().getMessage(player, MessageKey.HELP_SET));
+            plugin.getMessageManager().sendInfo(player, plugin.getMessageManager().getMessage(player, MessageKey.HELP_BLACKOUT));
         }
         if (player.hasPermission("announcer.update")) {
             plugin.getMessageManager().sendInfo(player, "§e/announcer update §7- Check for plugin updates");
         }
         // Help is always available
-        plugin.getMessageManager().sendInfo(player, plugin.getMessageManager().getCommandMessage("help", "help"));
+        plugin.getMessageManager().sendInfo(player, plugin.getMessageManager().getMessage(player, MessageKey.HELP_HELP));
     }
 
     private void sendConsoleHelp(CommandSender sender) {
-        sender.sendMessage(plugin.getMessageManager().getCommandMessage("help", "header"));
-        sender.sendMessage(plugin.getMessageManager().getCommandMessage("help", "start"));
-        sender.sendMessage(plugin.getMessageManager().getCommandMessage("help", "stop"));
-        sender.sendMessage(plugin.getMessageManager().getCommandMessage("help", "status"));
-        sender.sendMessage(plugin.getMessageManager().getCommandMessage("help", "toggle"));
-        sender.sendMessage(plugin.getMessageManager().getCommandMessage("help", "set"));
+        sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.HELP_HEADER));
+        sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.HELP_START));
+        sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.HELP_STOP));
+        sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.HELP_STATUS));
+        sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.HELP_HISTORY));
+        sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.HELP_TOGGLE));
+        sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.HELP_SET));
+        sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.HELP_BLACKOUT));
         sender.sendMessage("§e/announcer update §7- Check for plugin updates");
-        sender.sendMessage(plugin.getMessageManager().getCommandMessage("help", "help"));
+        sender.sendMessage(plugin.getMessageManager().getMessage(sender, MessageKey.HELP_HELP));
     }
     
     private String formatTime(int seconds) {
@@ -400,11 +629,13 @@ public class AnnouncerCommand implements CommandExecutor, TabCompleter {
             }
             if (player.hasPermission(plugin.getConfigManager().getStatusPermission())) {
                 subcommands.add("status");
+                subcommands.add("history");
             }
             if (player.hasPermission(plugin.getConfigManager().getReloadPermission())) {
                 subcommands.add("reload");
                 subcommands.add("toggle");
                 subcommands.add("set");
+                subcommands.add("blackout");
             }
             if (player.hasPermission("announcer.update")) {
                 subcommands.add("update");
@@ -424,6 +655,10 @@ public class AnnouncerCommand implements CommandExecutor, TabCompleter {
                 completions.addAll(Arrays.asList("5m", "10m", "15m", "30m", "1h", "2h"));
             } else if ("set".equals(subcommand) && player.hasPermission(plugin.getConfigManager().getReloadPermission())) {
                 completions.add("message");
+            } else if ("blackout".equals(subcommand) && player.hasPermission(plugin.getConfigManager().getReloadPermission())) {
+                completions.add("import");
+            } else if ("history".equals(subcommand) && player.hasPermission(plugin.getConfigManager().getStatusPermission())) {
+                completions.addAll(Arrays.asList("10", "25", "50"));
             }
         } else if (args.length == 3) {
             String subcommand = args[0].toLowerCase();
@@ -432,7 +667,7 @@ public class AnnouncerCommand implements CommandExecutor, TabCompleter {
                 completions.addAll(Arrays.asList("30s", "60s", "2m", "5m"));
             } else if ("set".equals(subcommand) && player.hasPermission(plugin.getConfigManager().getReloadPermission())) {
                 // Show current restart message as tab completion
-                String currentMessage = plugin.getMessageManager().getMessage("restart-message");
+                String currentMessage = plugin.getMessageManager().getRawMessage(MessageKey.RESTART_MESSAGE);
                 if (currentMessage != null && !currentMessage.isEmpty()) {
                     completions.add(currentMessage);
                 }
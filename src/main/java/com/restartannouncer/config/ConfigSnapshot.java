@@ -0,0 +1,246 @@
+package com.restartannouncer.config;
+
+import com.restartannouncer.schedule.PopulationHistogram;
+import com.restartannouncer.schedule.ReminderSpec;
+import com.restartannouncer.schedule.ScheduledRestartSpec;
+import com.restartannouncer.schedule.UptimePolicy;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * config.yml parsed, clamped and validated once. Immutable; {@link com.restartannouncer.managers.ConfigManager}
+ * swaps the whole snapshot on load, reload and in-game changes, so every setting read is a field read.
+ */
+public final class ConfigSnapshot {
+
+    private final FileConfiguration source;
+
+    private final int defaultRestartTime;
+    private final int defaultAnnouncementInterval;
+    private final String startPermission;
+    private final String stopPermission;
+    private final String statusPermission;
+    private final String reloadPermission;
+    private final ShutdownMethod shutdownMethod;
+    private final boolean executeShutdown;
+    private final boolean debugEnabled;
+    private final boolean updateCheckerEnabled;
+
+    private final boolean scheduledRestartEnabled;
+    private final String scheduledRestartTime;
+    /** Longest offset first. */
+    private final List<ReminderSpec> reminders;
+    private final boolean waitForBackup;
+    private final int waitForBackupDelaySeconds;
+    private final int restartGateTimeoutSeconds;
+    /** Null when scheduled restarts are disabled or the settings are invalid (already logged). */
+    private final List<ScheduledRestartSpec> scheduledRestartSpecs;
+    private final UptimePolicy uptimePolicy;
+
+    private final boolean hotReloadEnabled;
+    private final long hotReloadDebounceMillis;
+    private final boolean localeEnabled;
+    private final int localeCacheSize;
+    private final boolean emptyServerRestartEnabled;
+    private final int emptyServerRestartGraceSeconds;
+    private final int emptyServerRestartScheduledWindowMinutes;
+    private final boolean populationHistoryEnabled;
+    private final float populationHistorySmoothing;
+    private final boolean flightRecorderEnabled;
+    private final int flightRecorderMaxAgeMinutes;
+    private final int flightRecorderMaxSizeMb;
+    private final int flightRecorderKeepDumps;
+
+    private ConfigSnapshot(FileConfiguration config, Logger log, Supplier<PopulationHistogram> histogram) {
+        this.source = config;
+
+        this.defaultRestartTime = config.getInt("defaults.restart-time", 10);
+        this.defaultAnnouncementInterval = config.getInt("defaults.announcement-interval", 60);
+        this.startPermission = config.getString("permissions.start", "announcer.start");
+        this.stopPermission = config.getString("permissions.stop", "announcer.stop");
+        this.statusPermission = config.getString("permissions.status", "announcer.status");
+        this.reloadPermission = config.getString("permissions.reload", "announcer.reload");
+        this.shutdownMethod = ShutdownMethod.parse(config.getString("shutdown-method", "shutdown"));
+        this.executeShutdown = config.getBoolean("execute-shutdown", true);
+        this.debugEnabled = config.getBoolean("debug.enabled", false);
+        this.updateCheckerEnabled = config.getBoolean("update-checker.enabled", true);
+
+        this.scheduledRestartEnabled = config.getBoolean("scheduled-restart.enabled", false);
+        this.scheduledRestartTime = parseRestartTime(config.get("scheduled-restart.time"));
+        this.reminders = ReminderSpec.fromConfig(config, log);
+        this.waitForBackup = config.getBoolean("scheduled-restart.wait-for-backup", true);
+        this.waitForBackupDelaySeconds = Math.max(1, config.getInt("scheduled-restart.wait-for-backup-delay", 60));
+        this.restartGateTimeoutSeconds = Math.max(1, config.getInt("restart-gates.timeout-minutes", 30)) * 60;
+        this.scheduledRestartSpecs = scheduledRestartEnabled ? ScheduledRestartSpec.fromConfig(config, log, histogram) : null;
+        this.uptimePolicy = UptimePolicy.fromConfig(config);
+
+        this.hotReloadEnabled = config.getBoolean("hot-reload.enabled", false);
+        this.hotReloadDebounceMillis = Math.max(50L, config.getLong("hot-reload.debounce-ms", 500L));
+        this.localeEnabled = config.getBoolean("locale.enabled", true);
+        this.localeCacheSize = Math.max(1, config.getInt("locale.cache-size", 8));
+        this.emptyServerRestartEnabled = config.getBoolean("empty-server-restart.enabled", false);
+        this.emptyServerRestartGraceSeconds = Math.max(0, config.getInt("empty-server-restart.grace-seconds", 60));
+        this.emptyServerRestartScheduledWindowMinutes = Math.max(0, config.getInt("empty-server-restart.scheduled-window-minutes", 60));
+        this.populationHistoryEnabled = config.getBoolean("population-history.enabled", false);
+        this.populationHistorySmoothing = (float) config.getDouble("population-history.smoothing", 0.2);
+        this.flightRecorderEnabled = config.getBoolean("diagnostics.flight-recorder.enabled", false);
+        this.flightRecorderMaxAgeMinutes = Math.max(1, config.getInt("diagnostics.flight-recorder.max-age-minutes", 30));
+        this.flightRecorderMaxSizeMb = Math.max(1, config.getInt("diagnostics.flight-recorder.max-size-mb", 100));
+        this.flightRecorderKeepDumps = Math.max(1, config.getInt("diagnostics.flight-recorder.keep-dumps", 5));
+    }
+
+    /**
+     * Parse {@code config}. Invalid scheduled-restart settings are logged here once and leave the spec null.
+     */
+    public static ConfigSnapshot from(FileConfiguration config, Logger log, Supplier<PopulationHistogram> histogram) {
+        return new ConfigSnapshot(config, log, histogram);
+    }
+
+    /** 4 digits HHmm; accepts a number (400) or string ("0400", "04:00"). */
+    private static String parseRestartTime(Object v) {
+        if (v == null) {
+            return "0400";
+        }
+        if (v instanceof Number) {
+            return String.format("%04d", ((Number) v).intValue());
+        }
+        String s = v.toString().trim().replace(":", "");
+        try {
+            return s.isEmpty() ? "0400" : String.format("%04d", Integer.parseInt(s));
+        } catch (NumberFormatException e) {
+            return "0400";
+        }
+    }
+
+    /** The YAML this snapshot was parsed from, for settings without a typed field. */
+    public FileConfiguration getSource() {
+        return source;
+    }
+
+    public int getDefaultRestartTime() {
+        return defaultRestartTime;
+    }
+
+    public int getDefaultAnnouncementInterval() {
+        return defaultAnnouncementInterval;
+    }
+
+    public String getStartPermission() {
+        return startPermission;
+    }
+
+    public String getStopPermission() {
+        return stopPermission;
+    }
+
+    public String getStatusPermission() {
+        return statusPermission;
+    }
+
+    public String getReloadPermission() {
+        return reloadPermission;
+    }
+
+    public ShutdownMethod getShutdownMethod() {
+        return shutdownMethod;
+    }
+
+    public boolean isExecuteShutdown() {
+        return executeShutdown;
+    }
+
+    public boolean isDebugEnabled() {
+        return debugEnabled;
+    }
+
+    public boolean isUpdateCheckerEnabled() {
+        return updateCheckerEnabled;
+    }
+
+    public boolean isScheduledRestartEnabled() {
+        return scheduledRestartEnabled;
+    }
+
+    public String getScheduledRestartTime() {
+        return scheduledRestartTime;
+    }
+
+    public List<ReminderSpec> getReminders() {
+        return reminders;
+    }
+
+    public boolean isWaitForBackup() {
+        return waitForBackup;
+    }
+
+    public int getWaitForBackupDelaySeconds() {
+        return waitForBackupDelaySeconds;
+    }
+
+    public int getRestartGateTimeoutSeconds() {
+        return restartGateTimeoutSeconds;
+    }
+
+    public List<ScheduledRestartSpec> getScheduledRestartSpecs() {
+        return scheduledRestartSpecs;
+    }
+
+    public UptimePolicy getUptimePolicy() {
+        return uptimePolicy;
+    }
+
+    public boolean isHotReloadEnabled() {
+        return hotReloadEnabled;
+    }
+
+    public long getHotReloadDebounceMillis() {
+        return hotReloadDebounceMillis;
+    }
+
+    public boolean isLocaleEnabled() {
+        return localeEnabled;
+    }
+
+    public int getLocaleCacheSize() {
+        return localeCacheSize;
+    }
+
+    public boolean isEmptyServerRestartEnabled() {
+        return emptyServerRestartEnabled;
+    }
+
+    public int getEmptyServerRestartGraceSeconds() {
+        return emptyServerRestartGraceSeconds;
+    }
+
+    public int getEmptyServerRestartScheduledWindowMinutes() {
+        return emptyServerRestartScheduledWindowMinutes;
+    }
+
+    public boolean isPopulationHistoryEnabled() {
+        return populationHistoryEnabled;
+    }
+
+    public float getPopulationHistorySmoothing() {
+        return populationHistorySmoothing;
+    }
+
+    public boolean isFlightRecorderEnabled() {
+        return flightRecorderEnabled;
+    }
+
+    public int getFlightRecorderMaxAgeMinutes() {
+        return flightRecorderMaxAgeMinutes;
+    }
+
+    public int getFlightRecorderMaxSizeMb() {
+        return flightRecorderMaxSizeMb;
+    }
+
+    public int getFlightRecorderKeepDumps() {
+        return flightRecorderKeepDumps;
+    }
+}
@@ -0,0 +1,75 @@
+package com.restartannouncer.config;
+
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Sidecar file ({@code .<file>.migrated}) holding the SHA-256 of the jar defaults and of the user file as they were
+ * after the last migration. If both still match, the file cannot need migrating and {@link YamlMigrator} skips parsing.
+ */
+public final class MigrationState {
+
+    private final Plugin plugin;
+    private final File file;
+    /** Cached sidecar contents; null until read. */
+    private String defaultsHash;
+    private String fileHash;
+    private boolean loaded;
+
+    public MigrationState(Plugin plugin, String fileName) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), "." + fileName + ".migrated");
+    }
+
+    public synchronized boolean isCurrent(String defaultsHash, String fileHash) {
+        if (!loaded) {
+            load();
+        }
+        return defaultsHash.equals(this.defaultsHash) && fileHash.equals(this.fileHash);
+    }
+
+    /** Remember the hashes of a migrated (or already current) file. A failed write only costs a full check next time. */
+    public synchronized void record(String defaultsHash, String fileHash) {
+        this.defaultsHash = defaultsHash;
+        this.fileHash = fileHash;
+        this.loaded = true;
+        try {
+            Files.write(file.toPath(), List.of(defaultsHash, fileHash), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not write " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private void load() {
+        loaded = true;
+        if (!file.exists()) {
+            return;
+        }
+        try {
+            List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            if (lines.size() >= 2) {
+                defaultsHash = lines.get(0).trim();
+                fileHash = lines.get(1).trim();
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not read " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    public static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
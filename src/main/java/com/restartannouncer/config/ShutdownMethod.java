@@ -0,0 +1,30 @@
+package com.restartannouncer.config;
+
+import java.util.Locale;
+
+/**
+ * How the server is brought down when a countdown ends (config.yml shutdown-method).
+ */
+public enum ShutdownMethod {
+    /** Bukkit.shutdown(). */
+    SHUTDOWN,
+    /** The "stop" console command. */
+    STOP,
+    /** The "restart" console command (uses the server's restart script). */
+    RESTART;
+
+    /** Unknown values fall back to {@link #SHUTDOWN}, as before. */
+    public static ShutdownMethod parse(String value) {
+        if (value != null) {
+            switch (value.trim().toLowerCase(Locale.ROOT)) {
+                case "stop":
+                    return STOP;
+                case "restart":
+                    return RESTART;
+                default:
+                    break;
+            }
+        }
+        return SHUTDOWN;
+    }
+}
@@ -0,0 +1,362 @@
+package com.restartannouncer.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Brings a user YAML file (config.yml, messages.yml) up to date with the copy bundled in the jar: the jar's layout and
+ * comments are kept, the user's values are written into it, new keys get their defaults and keys the jar no longer has
+ * are dropped. The jar copy is read once; user values are looked up in a flat path index built from one parse, and the
+ * merged file is produced in a single pass over the default lines. A sidecar {@link MigrationState} lets startup skip
+ * all of this when neither file changed. Open sections (whose keys are chosen by the user, such as named schedules)
+ * are copied from the user file as a whole instead of being matched against the jar's keys.
+ */
+public final class YamlMigrator {
+
+    private static final Set<String> VERSION_KEYS = Set.of("config_version", "messages_version", "gui_version");
+    /** How far ahead to look for the first child of a key with no inline value. */
+    private static final int LOOKAHEAD_LINES = 10;
+
+    private final Plugin plugin;
+    private final String fileName;
+    private final String versionKey;
+    private final MigrationState state;
+    /** Paths of sections whose children are user-defined. */
+    private final Set<String> openSections;
+
+    public YamlMigrator(Plugin plugin, String fileName, String versionKey) {
+        this(plugin, fileName, versionKey, Set.of());
+    }
+
+    public YamlMigrator(Plugin plugin, String fileName, String versionKey, Set<String> openSections) {
+        this.plugin = plugin;
+        this.fileName = fileName;
+        this.versionKey = versionKey;
+        this.state = new MigrationState(plugin, fileName);
+        this.openSections = openSections;
+    }
+
+    /**
+     * Migrate {@code <data folder>/<fileName>} if it is behind the jar copy. Returns true if the file was rewritten.
+     * A user file that is not valid YAML is left untouched and the parse error is thrown.
+     * When neither the file nor the jar copy changed since the last run (per the sidecar hashes), nothing is parsed.
+     */
+    public boolean migrate() throws IOException, InvalidConfigurationException {
+        File userFile = new File(plugin.getDataFolder(), fileName);
+        if (!userFile.exists()) {
+            return false;
+        }
+        byte[] defaultBytes = readResource();
+        if (defaultBytes == null) {
+            plugin.getLogger().warning("Could not load default " + fileName + " from jar for migration");
+            return false;
+        }
+        byte[] userBytes = Files.readAllBytes(userFile.toPath());
+        String defaultsHash = MigrationState.sha256(defaultBytes);
+        if (state.isCurrent(defaultsHash, MigrationState.sha256(userBytes))) {
+            return false;
+        }
+
+        String merged = merge(new String(defaultBytes, StandardCharsets.UTF_8), new String(userBytes, StandardCharsets.UTF_8));
+        if (merged == null) {
+            state.record(defaultsHash, MigrationState.sha256(userBytes));
+            return false;
+        }
+        byte[] mergedBytes = merged.getBytes(StandardCharsets.UTF_8);
+        Files.write(userFile.toPath(), mergedBytes);
+        state.record(defaultsHash, MigrationState.sha256(mergedBytes));
+        plugin.getLogger().info(fileName + " migration completed - merged with default, preserving user values and all comments");
+        return true;
+    }
+
+    /**
+     * Merge {@code userText} into the layout of {@code defaultText}. Returns null if the user file is already current.
+     */
+    public String merge(String defaultText, String userText) throws InvalidConfigurationException {
+        YamlConfiguration defaults = new YamlConfiguration();
+        defaults.loadFromString(defaultText);
+        YamlConfiguration user = new YamlConfiguration();
+        user.loadFromString(userText);
+
+        // Flat "a.b.c" -> value indexes; sections appear as ConfigurationSection values
+        Map<String, Object> defaultValues = defaults.getValues(true);
+        Map<String, Object> userValues = user.getValues(true);
+
+        int defaultVersion = defaults.getInt(versionKey, 1);
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : defaultValues.entrySet()) {
+            String key = entry.getKey();
+            if (!(entry.getValue() instanceof ConfigurationSection) && !VERSION_KEYS.contains(key) && !userValues.containsKey(key)
+                    && !inOpenSection(key)) {
+                missing.add(key);
+            }
+        }
+        boolean versionCurrent = userValues.containsKey(versionKey) && user.getInt(versionKey, 0) == defaultVersion;
+        if (versionCurrent && missing.isEmpty()) {
+            return null;
+        }
+        if (!missing.isEmpty()) {
+            plugin.getLogger().info(fileName + " migration: merging missing keys from jar defaults: " + String.join(", ", missing));
+        }
+
+        String merged = merge(defaultText.split("\r?\n", -1), userValues, defaultVersion);
+
+        Set<String> deprecated = findDeprecatedKeys(userValues, defaultValues);
+        deprecated.removeIf(this::inOpenSection);
+        if (!deprecated.isEmpty()) {
+            plugin.getLogger().info("Removed deprecated keys from " + fileName + ": " + String.join(", ", deprecated));
+        }
+        return merged;
+    }
+
+    /** True for keys below (not at) an open section. */
+    private boolean inOpenSection(String key) {
+        for (String open : openSections) {
+            if (key.startsWith(open + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** The jar copy, or null if the jar does not contain it. */
+    private byte[] readResource() throws IOException {
+        try (InputStream in = plugin.getResource(fileName)) {
+            return in == null ? null : in.readAllBytes();
+        }
+    }
+
+    /**
+     * One pass over the default lines. The path of the enclosing sections is kept as a stack of prefixes
+     * ("a.", "a.b.") with their indents, so each key's full path is a single concatenation.
+     */
+    private String merge(String[] defaultLines, Map<String, Object> userValues, int defaultVersion) {
+        StringBuilder out = new StringBuilder(defaultLines.length * 48);
+        String[] prefixes = new String[16];
+        int[] indents = new int[16];
+        int depth = 0;
+        boolean versionWritten = false;
+
+        for (int i = 0; i < defaultLines.length; i++) {
+            String line = defaultLines[i];
+            String trimmed = line.trim();
+            int indent = line.length() - trimmed.length();
+
+            // Comments, blank lines and list items of untouched lists are copied as-is
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                appendLine(out, line);
+                continue;
+            }
+            while (depth > 0 && indent <= indents[depth - 1]) {
+                depth--;
+            }
+            int colon = trimmed.indexOf(':');
+            if (trimmed.startsWith("-") || colon < 0) {
+                appendLine(out, line);
+                continue;
+            }
+
+            String key = trimmed.substring(0, colon).trim();
+            String value = trimmed.substring(colon + 1).trim();
+            String path = depth == 0 ? key : prefixes[depth - 1] + key;
+
+            if (value.isEmpty()) {
+                // Section or list: decided by the first child line
+                boolean isList = false;
+                for (int j = i + 1; j < defaultLines.length && j < i + LOOKAHEAD_LINES; j++) {
+                    String next = defaultLines[j];
+                    String nextTrimmed = next.trim();
+                    if (nextTrimmed.isEmpty() || nextTrimmed.startsWith("#")) {
+                        continue;
+                    }
+                    isList = nextTrimmed.startsWith("-");
+                    break;
+                }
+                Object userValue = userValues.get(path);
+                if (openSections.contains(path) && userValue instanceof ConfigurationSection) {
+                    i = copyOpenSection(out, defaultLines, i, indent, key, (ConfigurationSection) userValue);
+                    continue;
+                }
+                appendLine(out, line);
+                if (isList && userValue instanceof List) {
+                    for (Object item : (List<?>) userValue) {
+                        String itemText = formatYamlValue(item);
+                        if (itemText.startsWith("\"") && itemText.endsWith("\"")) {
+                            itemText = itemText.substring(1, itemText.length() - 1);
+                        }
+                        appendLine(out, " ".repeat(indent + 2) + "- " + itemText);
+                    }
+                    // Skip the default items, and comments inside the list
+                    while (i + 1 < defaultLines.length) {
+                        String next = defaultLines[i + 1];
+                        String nextTrimmed = next.trim();
+                        int nextIndent = next.length() - nextTrimmed.length();
+                        boolean blankOrComment = nextTrimmed.isEmpty() || nextTrimmed.startsWith("#");
+                        if ((blankOrComment || nextTrimmed.startsWith("-")) && nextIndent > indent) {
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                }
+                if (depth == prefixes.length) {
+                    prefixes = Arrays.copyOf(prefixes, depth * 2);
+                    indents = Arrays.copyOf(indents, depth * 2);
+                }
+                prefixes[depth] = path + ".";
+                indents[depth++] = indent;
+                continue;
+            }
+
+            if (openSections.contains(path) && userValues.get(path) instanceof ConfigurationSection) {
+                // e.g. "schedules: {}" in the jar copy
+                i = copyOpenSection(out, defaultLines, i, indent, key, (ConfigurationSection) userValues.get(path));
+            } else if (depth == 0 && key.equals(versionKey)) {
+                appendLine(out, " ".repeat(indent) + versionKey + ": " + defaultVersion + inlineComment(value));
+                versionWritten = true;
+            } else if (!VERSION_KEYS.contains(key) && userValues.containsKey(path)) {
+                appendLine(out, " ".repeat(indent) + key + ": " + formatYamlValue(userValues.get(path)) + inlineComment(value));
+            } else {
+                appendLine(out, line);
+            }
+        }
+
+        // Trailing newline handling: split(-1) leaves a final empty element when the file ends with one
+        if (out.length() > 0 && defaultLines.length > 0 && defaultLines[defaultLines.length - 1].isEmpty()) {
+            out.setLength(out.length() - 1);
+        }
+        if (!versionWritten) {
+            insertVersionLine(out, defaultVersion);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Write the user's open section in place of the default one at line {@code start}. Comments inside the default
+     * section (documentation, commented-out examples) are kept; its keys are not. Returns the last line consumed.
+     */
+    private static int copyOpenSection(StringBuilder out, String[] defaultLines, int start, int indent, String key,
+                                       ConfigurationSection userSection) {
+        List<String> comments = new ArrayList<>();
+        int i = start;
+        while (i + 1 < defaultLines.length) {
+            String next = defaultLines[i + 1];
+            String nextTrimmed = next.trim();
+            if (!nextTrimmed.isEmpty() && next.length() - nextTrimmed.length() <= indent) {
+                break;
+            }
+            i++;
+            if (nextTrimmed.isEmpty() || nextTrimmed.startsWith("#")) {
+                comments.add(next);
+            }
+        }
+        // Blank lines before the next key stay after the copied section
+        int trailing = comments.size();
+        while (trailing > 0 && comments.get(trailing - 1).trim().isEmpty()) {
+            trailing--;
+        }
+        if (userSection.getKeys(false).isEmpty()) {
+            appendLine(out, " ".repeat(indent) + key + ": {}");
+        } else {
+            appendLine(out, " ".repeat(indent) + key + ":");
+        }
+        for (String comment : comments.subList(0, trailing)) {
+            appendLine(out, comment);
+        }
+        YamlConfiguration copy = new YamlConfiguration();
+        for (Map.Entry<String, Object> entry : userSection.getValues(false).entrySet()) {
+            copy.set(entry.getKey(), entry.getValue());
+        }
+        for (String copied : copy.saveToString().split("\n")) {
+            if (!copied.isEmpty() && !copied.equals("{}")) {
+                appendLine(out, " ".repeat(indent + 2) + copied);
+            }
+        }
+        for (String blank : comments.subList(trailing, comments.size())) {
+            appendLine(out, blank);
+        }
+        return i;
+    }
+
+    private static void appendLine(StringBuilder out, String line) {
+        out.append(line).append('\n');
+    }
+
+    private static String inlineComment(String value) {
+        int comment = value.indexOf('#');
+        return comment >= 0 ? " " + value.substring(comment) : "";
+    }
+
+    /** The jar copy always has the version key; this only covers a jar file without one. */
+    private void insertVersionLine(StringBuilder out, int version) {
+        int insertAt = 0;
+        while (insertAt < out.length() && out.charAt(insertAt) == '#') {
+            int end = out.indexOf("\n", insertAt);
+            insertAt = end < 0 ? out.length() : end + 1;
+        }
+        out.insert(insertAt, "# " + fileName + " version - do not modify\n" + versionKey + ": " + version + "\n\n");
+    }
+
+    /**
+     * Top-most user keys that the jar copy does not have (children of a removed section are not listed separately).
+     */
+    private static Set<String> findDeprecatedKeys(Map<String, Object> userValues, Map<String, Object> defaultValues) {
+        Set<String> deprecated = new TreeSet<>();
+        for (String key : userValues.keySet()) {
+            if (defaultValues.containsKey(key)) {
+                continue;
+            }
+            int dot = key.lastIndexOf('.');
+            String leaf = dot < 0 ? key : key.substring(dot + 1);
+            if (VERSION_KEYS.contains(leaf)) {
+                continue;
+            }
+            // A missing parent means the parent itself is deprecated and already listed
+            if (dot < 0 || defaultValues.containsKey(key.substring(0, dot))) {
+                deprecated.add(key);
+            }
+        }
+        return deprecated;
+    }
+
+    /**
+     * Format a YAML value as a string
+     */
+    static String formatYamlValue(Object value) {
+        if (value == null) {
+            return "null";
+        } else if (value instanceof String) {
+            String str = (String) value;
+            if (str.contains(":") || str.contains("#") || str.trim().isEmpty() ||
+                str.equalsIgnoreCase("true") || str.equalsIgnoreCase("false") ||
+                str.equalsIgnoreCase("null") || str.matches("^-?\\d+$")) {
+                return "\"" + str.replace("\"", "\\\"") + "\"";
+            }
+            return str;
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(formatYamlValue(list.get(i)));
+            }
+            return sb.append(']').toString();
+        } else {
+            return value.toString();
+        }
+    }
+}
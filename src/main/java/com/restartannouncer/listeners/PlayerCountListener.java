@@ -0,0 +1,54 @@
+package com.restartannouncer.listeners;
+
+import com.restartannouncer.RestartAnnouncerPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLocaleChangeEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps an online player count up to date from join/quit events, so restart logic never has to scan the player list.
+ * Also starts loading a player's message language in the background as soon as it is known.
+ */
+public class PlayerCountListener implements Listener {
+
+    private final RestartAnnouncerPlugin plugin;
+    private final AtomicInteger onlineCount = new AtomicInteger();
+
+    public PlayerCountListener(RestartAnnouncerPlugin plugin) {
+        this.plugin = plugin;
+        // Seed from the server in case the plugin is (re)loaded while players are online
+        this.onlineCount.set(Bukkit.getOnlinePlayers().size());
+    }
+
+    public int getOnlineCount() {
+        return onlineCount.get();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        plugin.onOnlineCountChanged(onlineCount.incrementAndGet());
+        Locale locale = event.getPlayer().locale();
+        if (locale != null) {
+            plugin.getMessageManager().preloadLocale(locale.toString());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLocaleChange(PlayerLocaleChangeEvent event) {
+        plugin.getMessageManager().preloadLocale(event.getLocale());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        // The quitting player is still in getOnlinePlayers() here, so track the count ourselves
+        int count = onlineCount.updateAndGet(c -> Math.max(0, c - 1));
+        plugin.onOnlineCountChanged(count);
+    }
+}
@@ -0,0 +1,95 @@
+package com.restartannouncer.managers;
+
+import com.restartannouncer.RestartAnnouncerPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Restarts early while nobody is online: a running countdown is cut short, and a scheduled restart
+ * that is close enough is brought forward. Driven by join/quit events and countdown starts, not polling.
+ */
+public class EmptyServerRestartManager {
+
+    private final RestartAnnouncerPlugin plugin;
+    private BukkitTask graceTask;
+
+    public EmptyServerRestartManager(RestartAnnouncerPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Called from join/quit events with the new online count.
+     */
+    public void onOnlineCountChanged(int onlineCount) {
+        if (onlineCount > 0) {
+            cancelGrace();
+            return;
+        }
+        evaluate();
+    }
+
+    /**
+     * Arm the grace timer if the server is empty and a restart is due or wanted. Safe to call repeatedly.
+     */
+    public void evaluate() {
+        if (!plugin.getConfigManager().isEmptyServerRestartEnabled() || graceTask != null) {
+            return;
+        }
+        if (plugin.getOnlineCount() > 0 || !isRestartWanted()) {
+            return;
+        }
+        int graceSeconds = plugin.getConfigManager().getEmptyServerRestartGraceSeconds();
+        if (graceSeconds <= 0) {
+            restartNow();
+            return;
+        }
+        graceTask = Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            graceTask = null;
+            restartNow();
+        }, graceSeconds * 20L);
+    }
+
+    public void stop() {
+        cancelGrace();
+    }
+
+    private void cancelGrace() {
+        if (graceTask != null) {
+            graceTask.cancel();
+            graceTask = null;
+        }
+    }
+
+    /**
+     * Due: a countdown is running. Wanted: the next scheduled restart is within scheduled-window-minutes.
+     */
+    private boolean isRestartWanted() {
+        if (plugin.getRestartManager().isRunning()) {
+            return true;
+        }
+        int windowMinutes = plugin.getConfigManager().getEmptyServerRestartScheduledWindowMinutes();
+        ScheduledRestartManager scheduled = plugin.getScheduledRestartManager();
+        if (windowMinutes <= 0 || scheduled == null) {
+            return false;
+        }
+        long secondsUntil = scheduled.getSecondsUntilNextRestart();
+        return secondsUntil >= 0 && secondsUntil <= windowMinutes * 60L;
+    }
+
+    private void restartNow() {
+        // Re-check: someone may have joined, or the countdown may have been cancelled, during the grace period
+        if (plugin.getOnlineCount() > 0 || !isRestartWanted()) {
+            return;
+        }
+        RestartManager restartManager = plugin.getRestartManager();
+        if (restartManager.isRunning()) {
+            plugin.getLogger().info("Server is empty – skipping the rest of the restart countdown (" + restartManager.getTimeRemainingFormatted() + " left)");
+            restartManager.skipToEnd();
+            return;
+        }
+        ScheduledRestartManager scheduled = plugin.getScheduledRestartManager();
+        if (scheduled != null && scheduled.startCountdownNow(1)) {
+            plugin.getLogger().info("Server is empty – bringing the scheduled restart forward");
+        }
+    }
+}
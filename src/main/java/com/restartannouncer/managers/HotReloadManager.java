@@ -0,0 +1,190 @@
+package com.restartannouncer.managers;
+
+import com.restartannouncer.RestartAnnouncerPlugin;
+import com.restartannouncer.config.ConfigSnapshot;
+import com.restartannouncer.config.MigrationState;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the data folder and reloads config.yml, messages.yml, a messages_&lt;locale&gt;.yml or the blackout calendar
+ * file when it changes on disk. Runs on a daemon thread; a burst of writes to one file becomes one reload once the file
+ * has been quiet for the debounce time. Files whose content hash did not change (touched, saved without edits) and
+ * files the plugin just saved itself are ignored. The reload runs on the plugin's reload thread, behind any
+ * /announcer reload. A blackout calendar outside the data folder itself (e.g. in a subfolder) is not watched.
+ */
+public class HotReloadManager {
+
+    private static final String CONFIG_FILE = "config.yml";
+    private static final String MESSAGES_FILE = "messages.yml";
+
+    private final RestartAnnouncerPlugin plugin;
+    private final File dataFolder;
+    /** Content hash per file name as last loaded. */
+    private final Map<String, String> lastHashes = new ConcurrentHashMap<>();
+    private WatchService watchService;
+    private Thread thread;
+    private volatile long debounceMillis;
+    /** Name of the blackout calendar file in the data folder, or null when there is none to watch. */
+    private volatile String blackoutsName;
+
+    public HotReloadManager(RestartAnnouncerPlugin plugin) {
+        this.plugin = plugin;
+        this.dataFolder = plugin.getDataFolder();
+    }
+
+    /**
+     * Start watching, or update the settings of a running watcher. {@code blackoutsFile} is the calendar from
+     * scheduled-restart.blackouts.file (may be null); it is only watched when it sits directly in the data folder.
+     */
+    public synchronized void start(long debounceMillis, File blackoutsFile) {
+        this.debounceMillis = Math.max(50L, debounceMillis);
+        String blackouts = blackoutsFile != null && dataFolder.getAbsoluteFile().equals(blackoutsFile.getAbsoluteFile().getParentFile())
+                ? blackoutsFile.getName() : null;
+        if (blackouts != null && !blackouts.equals(blackoutsName)) {
+            lastHashes.put(blackouts, hashOf(blackouts));
+        }
+        blackoutsName = blackouts;
+        if (thread != null) {
+            return;
+        }
+        WatchService service;
+        try {
+            service = FileSystems.getDefault().newWatchService();
+            dataFolder.toPath().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not watch " + dataFolder.getPath() + " for changes: " + e.getMessage());
+            return;
+        }
+        lastHashes.clear();
+        lastHashes.put(CONFIG_FILE, hashOf(CONFIG_FILE));
+        lastHashes.put(MESSAGES_FILE, hashOf(MESSAGES_FILE));
+        if (blackouts != null) {
+            lastHashes.put(blackouts, hashOf(blackouts));
+        }
+        watchService = service;
+        thread = new Thread(() -> watch(service), "RestartAnnouncer-HotReload");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        if (thread == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+        }
+        thread.interrupt();
+        thread = null;
+        watchService = null;
+    }
+
+    private void watch(WatchService service) {
+        // File name -> time of its latest event; reloaded once older than the debounce time
+        Map<String, Long> pending = new HashMap<>();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = pending.isEmpty() ? service.take() : service.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                long now = System.nanoTime();
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            pending.put(CONFIG_FILE, now);
+                            pending.put(MESSAGES_FILE, now);
+                            String blackouts = blackoutsName;
+                            if (blackouts != null) {
+                                pending.put(blackouts, now);
+                            }
+                            continue;
+                        }
+                        String name = event.context().toString();
+                        if (isWatched(name)) {
+                            pending.put(name, now);
+                        }
+                    }
+                    if (!key.reset()) {
+                        plugin.getLogger().warning("Data folder is no longer accessible; hot reload stopped");
+                        return;
+                    }
+                }
+                long quietNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+                Iterator<Map.Entry<String, Long>> it = pending.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<String, Long> entry = it.next();
+                    if (now - entry.getValue() >= quietNanos) {
+                        it.remove();
+                        String name = entry.getKey();
+                        plugin.runReload(() -> reload(name));
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    private boolean isWatched(String name) {
+        return name.equals(CONFIG_FILE) || name.equals(MESSAGES_FILE) || name.equals(blackoutsName)
+                || (name.startsWith("messages_") && name.endsWith(".yml"));
+    }
+
+    /**
+     * Reload thread. Parse the changed file and hand the result to the main thread.
+     * A file that fails to parse is reported and the live state is kept.
+     */
+    private void reload(String name) {
+        String hash = hashOf(name);
+        if (hash.equals(lastHashes.put(name, hash))) {
+            return;
+        }
+        // Saved by a command through the write-behind writer: the live state already has it
+        if (plugin.getFileWriter().isOwnWrite(new File(dataFolder, name), hash)) {
+            return;
+        }
+        try {
+            if (name.equals(CONFIG_FILE)) {
+                ConfigSnapshot loaded = plugin.getConfigManager().prepareReload();
+                plugin.runSync(() -> plugin.publishConfig(loaded));
+            } else if (name.equals(MESSAGES_FILE)) {
+                MessageManager.PreparedMessages prepared = plugin.getMessageManager().prepareReload();
+                plugin.runSync(() -> plugin.getMessageManager().publish(prepared));
+            } else if (name.equals(blackoutsName)) {
+                plugin.runSync(plugin::applyScheduledRestartFromConfig);
+            } else {
+                plugin.runSync(() -> plugin.getMessageManager().invalidateLocaleBundles());
+            }
+            // Migration may have rewritten the file; don't treat that write as another edit
+            lastHashes.put(name, hashOf(name));
+            plugin.getLogger().info("Reloaded " + name + " (changed on disk)");
+        } catch (Exception e) {
+            plugin.getLogger().warning("Not reloading " + name + ", keeping the previous version: " + e.getMessage());
+        }
+    }
+
+    private String hashOf(String name) {
+        File file = new File(dataFolder, name);
+        if (!file.exists()) {
+            return "";
+        }
+        try {
+            return MigrationState.sha256(Files.readAllBytes(file.toPath()));
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
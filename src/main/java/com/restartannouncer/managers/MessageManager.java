@@ -1,34 +1,65 @@
 package com.restartannouncer.managers;
 
 import com.restartannouncer.RestartAnnouncerPlugin;
+import com.restartannouncer.config.YamlMigrator;
+import com.restartannouncer.messages.MessageBundle;
+import com.restartannouncer.messages.MessageKey;
+import com.restartannouncer.messages.MessageTemplate;
+import com.restartannouncer.util.LegacyTagTranslator;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
 
 public class MessageManager {
+
+    private static final MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
+    /** Bukkit-compatible legacy output: section codes with §x§r§r§g§g§b§b hex colors. */
+    private static final LegacyComponentSerializer LEGACY_SERIALIZER = LegacyComponentSerializer.builder()
+            .character('§')
+            .hexColors()
+            .useUnusualXRepeatedCharacterHexFormat()
+            .build();
     
     private final RestartAnnouncerPlugin plugin;
+    private final YamlMigrator migrator;
     private FileConfiguration messagesConfig;
     private File messagesFile;
+    private final LegacyTagTranslator tagTranslator = new LegacyTagTranslator();
+    /** Per-locale bundles by lowercase locale tag (e.g. "de_de"); least recently used dropped past locale.cache-size. */
+    private final Map<String, MessageBundle> localeBundles = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, MessageBundle> eldest) {
+            return size() > plugin.getConfigManager().getLocaleCacheSize();
+        }
+    };
+    /** Locales whose bundle is being loaded off the main thread; guarded by localeBundles. */
+    private final Set<String> loadingLocales = new HashSet<>();
+    /** Bumped when locale bundles are invalidated so a load started before that is discarded; guarded by localeBundles. */
+    private int localeGeneration;
+    /** Current messages; replaced as a whole on reload, never mutated. */
+    private volatile MessageBundle bundle = new MessageBundle(Collections.emptyMap(), new MessageTemplate[MessageKey.values().length]);
     
     public MessageManager(RestartAnnouncerPlugin plugin) {
         this.plugin = plugin;
+        this.migrator = new YamlMigrator(plugin, "messages.yml", "messages_version");
     }
     
     public void loadMessages() {
@@ -42,21 +73,9 @@ public class MessageManager {
         
         migrateMessages();
         messagesConfig = YamlConfiguration.loadConfiguration(messagesFile);
-    }
-    
-    private boolean hasMissingLeafKeysComparedToJarDefaults(YamlConfiguration current, YamlConfiguration defaults, String fileVersionKey) {
-        List<String> missing = new ArrayList<>();
-        for (String key : defaults.getKeys(true)) {
-            if (defaults.isConfigurationSection(key)) continue;
-            if (key.equals(fileVersionKey)) continue;
-            if (key.equals("config_version") || key.equals("messages_version") || key.equals("gui_version")) continue;
-            if (!current.contains(key)) missing.add(key);
-        }
-        if (!missing.isEmpty()) {
-            plugin.getLogger().info("Messages migration: merging missing keys from jar defaults: " + String.join(", ", missing));
-            return true;
-        }
-        return false;
+        bundle = compileBundle(MessageBundle.flatten(messagesConfig));
+        invalidateLocaleBundles();
+        tagTranslator.clearCache();
     }
 
     /**
@@ -65,410 +84,278 @@ public class MessageManager {
      */
     private void migrateMessages() {
         try {
-            // Get the actual messages file
-            File configFile = new File(plugin.getDataFolder(), "messages.yml");
-            
-            if (!configFile.exists()) {
-                return; // No migration needed if file doesn't exist
-            }
-            
-            // Load the default config from the jar resource
-            InputStream defaultConfigTextStream = plugin.getResource("messages.yml");
-            if (defaultConfigTextStream == null) {
-                plugin.getLogger().warning("Could not load default messages.yml from jar for migration");
-                return;
-            }
-            
-            // Read default config as text to preserve formatting
-            List<String> defaultLines = new ArrayList<>();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(defaultConfigTextStream))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    defaultLines.add(line);
-                }
-            }
-            
-            // Load as YAML to get user values
-            InputStream defaultConfigYamlStream = plugin.getResource("messages.yml");
-            YamlConfiguration defaultConfig = YamlConfiguration.loadConfiguration(
-                new InputStreamReader(defaultConfigYamlStream));
-            YamlConfiguration currentConfig = YamlConfiguration.loadConfiguration(configFile);
-            
-            // Check config version - get default version
-            String versionKey = "messages_version";
-            int defaultVersion = defaultConfig.getInt(versionKey, 1);
-            int currentVersion = currentConfig.getInt(versionKey, 0); // 0 means old config without version
-            
-            boolean missingLeaves = hasMissingLeafKeysComparedToJarDefaults(currentConfig, defaultConfig, versionKey);
-            if (currentVersion == defaultVersion && currentConfig.contains(versionKey) && !missingLeaves) {
-                return; // Config is up to date
-            }
-            
-            // Simple merge: Use default structure/comments, replace values with user's where they exist
-            // Deprecated keys (in user config but not in default) are automatically removed
-            List<String> mergedLines = mergeConfigs(defaultLines, currentConfig, defaultConfig);
-            
-            // Check for and log deprecated keys that were removed
-            Set<String> deprecatedKeys = findDeprecatedKeys(currentConfig, defaultConfig);
-            if (!deprecatedKeys.isEmpty()) {
-                plugin.getLogger().info("Removed deprecated keys from messages.yml: " + String.join(", ", deprecatedKeys));
-            }
-            
-            // Update config version
-            updateConfigVersion(mergedLines, defaultVersion, defaultLines, versionKey);
-            
-            // Write merged config
-            Files.write(configFile.toPath(), mergedLines, StandardCharsets.UTF_8);
-            
-            plugin.getLogger().info("Messages migration completed - merged with default, preserving user values and all comments");
+            migrator.migrate();
         } catch (Exception e) {
-            plugin.getLogger().warning("Error migrating messages.yml: " + e.getMessage());
             // Don't fail plugin startup if migration has issues
-            e.printStackTrace();
+            plugin.getLogger().warning("Error migrating messages.yml: " + e.getMessage());
         }
     }
-    
+
+    public void reloadMessages() {
+        loadMessages();
+    }
+
+    /** Parsed and compiled messages.yml, not yet live. */
+    public static final class PreparedMessages {
+        private final FileConfiguration config;
+        private final MessageBundle bundle;
+
+        private PreparedMessages(FileConfiguration config, MessageBundle bundle) {
+            this.config = config;
+            this.bundle = bundle;
+        }
+    }
+
     /**
-     * Merge default config (with comments) with user config (with values)
+     * Migrate, parse and compile messages.yml without touching the live messages. Does file I/O; call off the main thread.
+     * A broken file throws instead of silently loading as empty.
      */
-    private List<String> mergeConfigs(List<String> defaultLines, YamlConfiguration userConfig, YamlConfiguration defaultConfig) {
-        List<String> merged = new ArrayList<>();
-        Stack<Pair<String, Integer>> pathStack = new Stack<>();
-        
-        for (int i = 0; i < defaultLines.size(); i++) {
-            String line = defaultLines.get(i);
-            String trimmed = line.trim();
-            int currentIndent = line.length() - trimmed.length();
-            
-            if (trimmed.isEmpty() || line.startsWith("#")) {
-                merged.add(line);
-                continue;
-            }
-            
-            while (!pathStack.isEmpty() && currentIndent <= pathStack.peek().getValue()) {
-                pathStack.pop();
-            }
-            
-            if (trimmed.startsWith("-")) {
-                merged.add(line);
-                continue;
-            }
-            
-            if (trimmed.contains(":") && !trimmed.startsWith("#")) {
-                int colonIndex = trimmed.indexOf(':');
-                String keyPart = trimmed.substring(0, colonIndex).trim();
-                String valuePart = trimmed.substring(colonIndex + 1).trim();
-                
-                StringBuilder fullPathBuilder = new StringBuilder();
-                for (Pair<String, Integer> pathEntry : pathStack) {
-                    if (fullPathBuilder.length() > 0) {
-                        fullPathBuilder.append(".");
-                    }
-                    fullPathBuilder.append(pathEntry.getKey());
-                }
-                if (fullPathBuilder.length() > 0) {
-                    fullPathBuilder.append(".");
-                }
-                fullPathBuilder.append(keyPart);
-                String fullPath = fullPathBuilder.toString();
-                
-                boolean isSection = valuePart.isEmpty();
-                boolean isList = false;
-                if (isSection && i + 1 < defaultLines.size()) {
-                    for (int j = i + 1; j < defaultLines.size() && j < i + 10; j++) {
-                        String nextLine = defaultLines.get(j);
-                        String nextTrimmed = nextLine.trim();
-                        if (nextTrimmed.isEmpty() || nextLine.startsWith("#")) {
-                            continue;
-                        }
-                        int nextIndent = nextLine.length() - nextTrimmed.length();
-                        if (nextTrimmed.startsWith("-")) {
-                            isList = true;
-                            isSection = true;
-                            break;
-                        } else if (nextIndent > currentIndent) {
-                            isSection = true;
-                            break;
-                        } else {
-                            break;
-                        }
-                    }
-                }
-                
-                if (isSection) {
-                    if (userConfig.contains(fullPath)) {
-                        Object userValue = userConfig.get(fullPath);
-                        if (isList && userValue instanceof List) {
-                            merged.add(line);
-                            List<?> userList = (List<?>) userValue;
-                            for (Object item : userList) {
-                                String itemStr = formatYamlValue(item);
-                                if (itemStr.startsWith("\"") && itemStr.endsWith("\"")) {
-                                    itemStr = itemStr.substring(1, itemStr.length() - 1);
-                                }
-                                merged.add(" ".repeat(currentIndent + 2) + "- " + itemStr);
-                            }
-                            while (i + 1 < defaultLines.size()) {
-                                String nextLine = defaultLines.get(i + 1);
-                                String nextTrimmed = nextLine.trim();
-                                int nextIndent = nextLine.length() - nextTrimmed.length();
-                                if (nextTrimmed.isEmpty() || nextLine.startsWith("#")) {
-                                    if (nextIndent > currentIndent) {
-                                        i++;
-                                    } else {
-                                        break;
-                                    }
-                                } else if (nextTrimmed.startsWith("-") && nextIndent > currentIndent) {
-                                    i++;
-                                } else {
-                                    break;
-                                }
-                            }
-                            pathStack.push(new Pair<>(keyPart, currentIndent));
-                            continue;
-                        } else {
-                            merged.add(line);
-                            pathStack.push(new Pair<>(keyPart, currentIndent));
-                        }
-                    } else {
-                        merged.add(line);
-                        pathStack.push(new Pair<>(keyPart, currentIndent));
-                    }
-                } else {
-                    if (keyPart.equals("config_version") || keyPart.equals("messages_version") || keyPart.equals("gui_version")) {
-                        merged.add(line);
-                    } else if (userConfig.contains(fullPath)) {
-                        Object userValue = userConfig.get(fullPath);
-                        String userValueStr = formatYamlValue(userValue);
-                        String inlineComment = "";
-                        int commentIndex = valuePart.indexOf('#');
-                        if (commentIndex >= 0) {
-                            inlineComment = " " + valuePart.substring(commentIndex);
-                        }
-                        merged.add(" ".repeat(currentIndent) + keyPart + ": " + userValueStr + inlineComment);
-                    } else {
-                        merged.add(line);
-                    }
-                }
-            } else {
-                merged.add(line);
-            }
+    public PreparedMessages prepareReload() throws IOException, InvalidConfigurationException {
+        File file = new File(plugin.getDataFolder(), "messages.yml");
+        if (!file.exists()) {
+            plugin.saveResource("messages.yml", false);
         }
-        
-        return merged;
+        migrateMessages();
+        YamlConfiguration loaded = new YamlConfiguration();
+        loaded.load(file);
+        return new PreparedMessages(loaded, compileBundle(MessageBundle.flatten(loaded)));
     }
-    
-    private Set<String> findDeprecatedKeys(YamlConfiguration userConfig, YamlConfiguration defaultConfig) {
-        Set<String> deprecated = new HashSet<>();
-        findDeprecatedKeysRecursive(userConfig, defaultConfig, "", deprecated);
-        return deprecated;
+
+    /** Make messages from {@link #prepareReload()} live in one swap. Main thread. */
+    public void publish(PreparedMessages prepared) {
+        if (messagesFile == null) {
+            messagesFile = new File(plugin.getDataFolder(), "messages.yml");
+        }
+        messagesConfig = prepared.config;
+        bundle = prepared.bundle;
+        invalidateLocaleBundles();
+        tagTranslator.clearCache();
     }
     
-    private void findDeprecatedKeysRecursive(YamlConfiguration userConfig, YamlConfiguration defaultConfig, 
-                                             String basePath, Set<String> deprecated) {
-        for (String key : userConfig.getKeys(false)) {
-            String fullPath = basePath.isEmpty() ? key : basePath + "." + key;
-            if (key.equals("config_version") || key.equals("messages_version") || key.equals("gui_version")) {
-                continue;
-            }
-            if (!defaultConfig.contains(fullPath)) {
-                deprecated.add(fullPath);
-            } else if (userConfig.isConfigurationSection(key) && defaultConfig.isConfigurationSection(fullPath)) {
-                findDeprecatedKeysRecursive(
-                    userConfig.getConfigurationSection(key),
-                    defaultConfig.getConfigurationSection(fullPath),
-                    fullPath,
-                    deprecated
-                );
+    public boolean setRestartMessage(String newMessage) {
+        messagesConfig.set(MessageKey.RESTART_MESSAGE.getPath(), newMessage);
+        Map<String, String> raw = new HashMap<>(bundle.asMap());
+        raw.put(MessageKey.RESTART_MESSAGE.getPath(), newMessage);
+        bundle = compileBundle(raw);
+        invalidateLocaleBundles();
+        // Written in the background; several /announcer set calls in a row become one write
+        plugin.getFileWriter().save(messagesFile, () -> messagesConfig.saveToString());
+        return true;
+    }
+
+    /**
+     * Compile every known message: swap its placeholders for one-character marks, parse it once with MiniMessage,
+     * serialize the Component tree once to legacy section codes (hex colors and gradients included), then split that
+     * output at the marks into a {@link MessageTemplate}. A mark is a single character, so even a rainbow that colors
+     * each character separately keeps it whole; rendering only fills slots and never re-parses.
+     */
+    private MessageBundle compileBundle(Map<String, String> raw) {
+        MessageKey[] keys = MessageKey.values();
+        MessageTemplate[] compiled = new MessageTemplate[keys.length];
+        for (MessageKey key : keys) {
+            String message = raw.get(key.getPath());
+            if (message == null || message.isEmpty()) {
+                message = key.getDefaultValue();
             }
+            compiled[key.ordinal()] = compile("messages.yml " + key.getPath(), message, key.getPlaceholders());
         }
+        return new MessageBundle(raw, compiled);
     }
-    
-    private void findDeprecatedKeysRecursive(org.bukkit.configuration.ConfigurationSection userSection,
-                                            org.bukkit.configuration.ConfigurationSection defaultSection,
-                                            String basePath, Set<String> deprecated) {
-        for (String key : userSection.getKeys(false)) {
-            String fullPath = basePath.isEmpty() ? key : basePath + "." + key;
-            if (key.equals("config_version") || key.equals("messages_version") || key.equals("gui_version")) {
-                continue;
-            }
-            if (!defaultSection.contains(key)) {
-                deprecated.add(fullPath);
-            } else if (userSection.isConfigurationSection(key) && defaultSection.isConfigurationSection(key)) {
-                findDeprecatedKeysRecursive(
-                    userSection.getConfigurationSection(key),
-                    defaultSection.getConfigurationSection(key),
-                    fullPath,
-                    deprecated
-                );
-            }
+
+    /**
+     * MiniMessage to legacy text. Strings that already contain section codes (or fail to parse) use the tag translator,
+     * since MiniMessage does not mix with legacy codes.
+     */
+    private String toLegacy(String source, String raw) {
+        if (raw.isEmpty() || raw.indexOf('§') >= 0) {
+            return tagTranslator.translateUncached(raw);
+        }
+        try {
+            return LEGACY_SERIALIZER.serialize(MINI_MESSAGE.deserialize(raw));
+        } catch (Exception e) {
+            plugin.getLogger().warning(source + " is not valid MiniMessage (" + e.getMessage() + "); using basic tags");
+            return tagTranslator.translateUncached(raw);
         }
     }
+
+    /**
+     * Compile text that does not live in messages.yml (e.g. a reminder message in config.yml) the same way as
+     * messages.yml entries. {@code source} names it in warnings.
+     */
+    public MessageTemplate compile(String source, String raw, String... placeholders) {
+        return MessageTemplate.compileMarked(toLegacy(source, MessageTemplate.mark(raw, placeholders)), placeholders.length);
+    }
+
+    public String getMessage(String path) {
+        return getMessage(path, "");
+    }
     
-    private static class Pair<K, V> {
-        private final K key;
-        private final V value;
-        
-        public Pair(K key, V value) {
-            this.key = key;
-            this.value = value;
+    public String getMessage(String path, String defaultValue) {
+        String message = bundle.get(path);
+        if (message == null || message.isEmpty()) {
+            return defaultValue;
         }
-        
-        public K getKey() { return key; }
-        public V getValue() { return value; }
+        return message;
     }
-    
-    private String formatYamlValue(Object value) {
-        if (value == null) {
-            return "null";
-        } else if (value instanceof String) {
-            String str = (String) value;
-            if (str.contains(":") || str.contains("#") || str.trim().isEmpty() || 
-                str.equalsIgnoreCase("true") || str.equalsIgnoreCase("false") || 
-                str.equalsIgnoreCase("null") || str.matches("^-?\\d+$")) {
-                return "\"" + str.replace("\"", "\\\"") + "\"";
-            }
-            return str;
-        } else if (value instanceof Boolean) {
-            return value.toString();
-        } else if (value instanceof Number) {
-            return value.toString();
-        } else if (value instanceof List) {
-            List<?> list = (List<?>) value;
-            if (list.isEmpty()) {
-                return "[]";
-            }
-            if (list.size() == 1 && (list.get(0) instanceof String || list.get(0) instanceof Number)) {
-                return "[" + formatYamlValue(list.get(0)) + "]";
+
+    /**
+     * Render a known message with positional placeholder values, in the order given by {@link MessageKey#getPlaceholders()}.
+     * The result is already formatted (legacy section codes) and can be sent as-is.
+     */
+    public String getMessage(MessageKey key, String... args) {
+        return bundle.template(key).render(args);
+    }
+
+    /** Current immutable message snapshot; safe to read from async threads without locking. */
+    public MessageBundle getBundle() {
+        return bundle;
+    }
+
+    /**
+     * Bundle for the sender's client language: messages_&lt;locale&gt;.yml (e.g. messages_de_de.yml, then messages_de.yml),
+     * with missing keys taken from messages.yml. Console and unknown locales get the default. A locale seen for the
+     * first time is loaded and compiled off the main thread; until it is ready the default bundle is used, so a
+     * broadcast never reads a file.
+     */
+    public MessageBundle getBundle(CommandSender sender) {
+        if (!(sender instanceof Player) || !plugin.getConfigManager().isLocaleEnabled()) {
+            return bundle;
+        }
+        Locale locale = ((Player) sender).locale();
+        if (locale == null) {
+            return bundle;
+        }
+        String tag = locale.toString().toLowerCase(Locale.ROOT);
+        synchronized (localeBundles) {
+            MessageBundle cached = localeBundles.get(tag);
+            if (cached != null) {
+                return cached;
             }
-            StringBuilder sb = new StringBuilder("[");
-            for (int i = 0; i < list.size(); i++) {
-                if (i > 0) sb.append(", ");
-                sb.append(formatYamlValue(list.get(i)));
+        }
+        loadLocaleAsync(tag);
+        return bundle;
+    }
+
+    /**
+     * Start loading the bundle for a client locale tag (e.g. "de_DE") in the background if it is not loaded yet.
+     * Called on join and when a player changes language, so the bundle is usually ready before the first broadcast.
+     */
+    public void preloadLocale(String localeTag) {
+        if (localeTag == null || localeTag.isEmpty() || !plugin.getConfigManager().isLocaleEnabled()) {
+            return;
+        }
+        String tag = localeTag.toLowerCase(Locale.ROOT);
+        synchronized (localeBundles) {
+            if (localeBundles.containsKey(tag)) {
+                return;
             }
-            sb.append("]");
-            return sb.toString();
-        } else {
-            return value.toString();
         }
+        loadLocaleAsync(tag);
     }
-    
-    private void updateConfigVersion(List<String> lines, int newVersion, List<String> defaultLines, String versionKey) {
-        boolean found = false;
-        for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i);
-            String trimmed = line.trim();
-            if (trimmed.startsWith(versionKey + ":") || trimmed.startsWith(versionKey + " ")) {
-                int indent = line.length() - trimmed.length();
-                String restOfLine = "";
-                int colonIndex = trimmed.indexOf(':');
-                if (colonIndex >= 0 && colonIndex + 1 < trimmed.length()) {
-                    String afterColon = trimmed.substring(colonIndex + 1).trim();
-                    int commentIndex = afterColon.indexOf('#');
-                    if (commentIndex >= 0) {
-                        restOfLine = " #" + afterColon.substring(commentIndex + 1);
-                    }
-                }
-                lines.set(i, " ".repeat(indent) + versionKey + ": " + newVersion + restOfLine);
-                found = true;
-                break;
+
+    private void loadLocaleAsync(String tag) {
+        if (!plugin.isEnabled()) {
+            return;
+        }
+        int generation;
+        synchronized (localeBundles) {
+            if (!loadingLocales.add(tag)) {
+                return;
             }
+            generation = localeGeneration;
         }
-        
-        if (!found) {
-            String commentLine = "# Messages version - do not modify";
-            for (int i = 0; i < defaultLines.size(); i++) {
-                String line = defaultLines.get(i);
-                String trimmed = line.trim();
-                if (trimmed.startsWith(versionKey + ":") || trimmed.startsWith(versionKey + " ")) {
-                    if (i > 0) {
-                        String prevLine = defaultLines.get(i - 1);
-                        if (prevLine.trim().startsWith("#")) {
-                            commentLine = prevLine;
+        plugin.runAsync(() -> {
+            MessageBundle loaded = null;
+            try {
+                loaded = loadLocaleBundle(tag);
+            } finally {
+                synchronized (localeBundles) {
+                    // After an invalidation the marker belongs to the newer load, if one started
+                    if (generation == localeGeneration) {
+                        loadingLocales.remove(tag);
+                        if (loaded != null) {
+                            localeBundles.put(tag, loaded);
                         }
                     }
-                    break;
                 }
             }
-            
-            int insertIndex = 0;
-            for (int i = 0; i < lines.size(); i++) {
-                String line = lines.get(i);
-                String trimmed = line.trim();
-                if (!trimmed.isEmpty() && !line.startsWith("#") && !trimmed.startsWith(versionKey)) {
-                    insertIndex = i;
-                    break;
-                }
-            }
-            lines.add(insertIndex, commentLine);
-            lines.add(insertIndex + 1, versionKey + ": " + newVersion);
-            if (insertIndex + 2 < lines.size() && !lines.get(insertIndex + 2).trim().isEmpty()) {
-                lines.add(insertIndex + 2, "");
-            }
-        }
+        });
     }
-    
-    public void reloadMessages() {
-        loadMessages();
-    }
-    
-    public boolean setRestartMessage(String newMessage) {
-        try {
-            messagesConfig.set("restart-message", newMessage);
-            messagesConfig.save(messagesFile);
-            return true;
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save restart message: " + e.getMessage());
-            return false;
+
+    /** Reads and compiles a locale file; call off the main thread. */
+    private MessageBundle loadLocaleBundle(String tag) {
+        MessageBundle base = bundle;
+        File file = new File(plugin.getDataFolder(), "messages_" + tag + ".yml");
+        int separator = tag.indexOf('_');
+        if (!file.exists() && separator > 0) {
+            file = new File(plugin.getDataFolder(), "messages_" + tag.substring(0, separator) + ".yml");
         }
-    }
-    
-    public String getMessage(String path) {
-        return getMessage(path, "");
-    }
-    
-    public String getMessage(String path, String defaultValue) {
-        String message = messagesConfig.getString(path, defaultValue);
-        if (message == null || message.isEmpty()) {
-            return defaultValue;
+        if (!file.exists()) {
+            // Cached too, so players with this locale never hit the disk again until reload
+            return base;
         }
-        return message;
+        Map<String, String> raw = new HashMap<>(base.asMap());
+        raw.putAll(MessageBundle.flatten(YamlConfiguration.loadConfiguration(file)));
+        plugin.getLogger().info("Loaded " + file.getName() + " for locale " + tag);
+        return compileBundle(raw);
     }
-    
-    public String getMessage(String path, Map<String, String> placeholders) {
-        String message = getMessage(path);
-        if (placeholders != null) {
-            for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-                message = message.replace("%" + entry.getKey() + "%", entry.getValue());
+
+    /**
+     * Drop loaded messages_&lt;locale&gt;.yml bundles and load the ones in use again in the background. Players keep the
+     * default messages until their language is ready.
+     */
+    public void invalidateLocaleBundles() {
+        List<String> inUse;
+        synchronized (localeBundles) {
+            inUse = new ArrayList<>(localeBundles.keySet());
+            localeBundles.clear();
+            loadingLocales.clear();
+            localeGeneration++;
+        }
+        if (plugin.getConfigManager().isLocaleEnabled()) {
+            for (String tag : inUse) {
+                loadLocaleAsync(tag);
             }
         }
-        return message;
-    }
-    
-    // Convenience methods
-    public String getCommandMessage(String command, String type) {
-        return getMessage("commands." + command + "." + type);
     }
-    
-    public String getCommandMessage(String command, String type, Map<String, String> placeholders) {
-        return getMessage("commands." + command + "." + type, placeholders);
+
+    /**
+     * Render a known message in the sender's language (see {@link #getBundle(CommandSender)}).
+     */
+    public String getMessage(CommandSender sender, MessageKey key, String... args) {
+        return getBundle(sender).template(key).render(args);
     }
-    
-    public String getRestartMessage(String timeRemaining) {
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put("time", timeRemaining);
-        return getMessage("restart-message", placeholders);
+
+    /**
+     * Render a message once per language present among online players. Returns rendered text -&gt; recipients.
+     */
+    public Map<String, List<Player>> renderForOnlinePlayers(MessageKey key, String... args) {
+        Map<MessageBundle, List<Player>> byBundle = new IdentityHashMap<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            byBundle.computeIfAbsent(getBundle(player), b -> new ArrayList<>()).add(player);
+        }
+        Map<String, List<Player>> rendered = new HashMap<>();
+        for (Map.Entry<MessageBundle, List<Player>> entry : byBundle.entrySet()) {
+            rendered.computeIfAbsent(entry.getKey().template(key).render(args), m -> new ArrayList<>()).addAll(entry.getValue());
+        }
+        return rendered;
     }
-    
-    // Helper method to create placeholder map
-    public Map<String, String> createPlaceholders(String... keyValuePairs) {
-        Map<String, String> placeholders = new HashMap<>();
-        for (int i = 0; i < keyValuePairs.length; i += 2) {
-            if (i + 1 < keyValuePairs.length) {
-                placeholders.put(keyValuePairs[i], keyValuePairs[i + 1]);
+
+    /**
+     * Broadcast a known message, rendered once per language present; the console gets the default language.
+     */
+    public void broadcast(MessageKey key, String... args) {
+        for (Map.Entry<String, List<Player>> entry : renderForOnlinePlayers(key, args).entrySet()) {
+            for (Player player : entry.getValue()) {
+                player.sendMessage(entry.getKey());
             }
         }
-        return placeholders;
+        Bukkit.getConsoleSender().sendMessage(getMessage(key, args));
+    }
+
+    /** The message as written in messages.yml (MiniMessage), e.g. for editing. */
+    public String getRawMessage(MessageKey key) {
+        return getMessage(key.getPath(), key.getDefaultValue());
     }
     
     // Message sending methods
@@ -494,29 +381,10 @@ public class MessageManager {
         sendMessage(player, message);
     }
     
+    /**
+     * Convert MiniMessage-style tags to legacy section codes (single pass, cached).
+     */
     public String formatMessage(String message) {
-        // Convert MiniMessage tags to legacy format
-        return message
-            .replace("<red>", "§c")
-            .replace("<dark_red>", "§4")
-            .replace("<blue>", "§b")
-            .replace("<dark_blue>", "§1")
-            .replace("<aqua>", "§b")
-            .replace("<dark_aqua>", "§3")
-            .replace("<green>", "§a")
-            .replace("<dark_green>", "§2")
-            .replace("<yellow>", "§e")
-            .replace("<gold>", "§6")
-            .replace("<purple>", "§d")
-            .replace("<dark_purple>", "§5")
-            .replace("<white>", "§f")
-            .replace("<gray>", "§7")
-            .replace("<dark_gray>", "§8")
-            .replace("<black>", "§0")
-            .replace("<bold>", "§l")
-            .replace("<italic>", "§o")
-            .replace("<underline>", "§n")
-            .replace("<strikethrough>", "§m")
-            .replace("<reset>", "§r");
+        return tagTranslator.translate(message);
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
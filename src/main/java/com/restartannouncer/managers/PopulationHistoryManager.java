@@ -0,0 +1,100 @@
+package com.restartannouncer.managers;
+
+import com.restartannouncer.RestartAnnouncerPlugin;
+import com.restartannouncer.schedule.PopulationHistogram;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Samples the online player count every 5 minutes into a {@link PopulationHistogram} and persists it
+ * to population.bin. Used by the AUTO scheduled-restart recurrence.
+ */
+public class PopulationHistoryManager {
+
+    private static final long SAMPLE_INTERVAL_TICKS = 20L * 60 * PopulationHistogram.SLOT_MINUTES;
+    /** Persist once an hour (every 12 samples) and on disable. */
+    private static final int SAMPLES_PER_SAVE = 12;
+
+    private final RestartAnnouncerPlugin plugin;
+    private final File file;
+    private PopulationHistogram histogram;
+    private BukkitTask sampleTask;
+    private int samplesSinceSave;
+    /** Increases with every snapshot taken for saving; guarded by this. */
+    private long snapshotSequence;
+    /** Sequence of the newest snapshot written, so a late async save never overwrites a newer one; guarded by this. */
+    private long savedSequence;
+
+    public PopulationHistoryManager(RestartAnnouncerPlugin plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), "population.bin");
+    }
+
+    public void start(float smoothing) {
+        if (histogram == null) {
+            histogram = new PopulationHistogram(smoothing);
+            try {
+                histogram.load(file);
+            } catch (IOException e) {
+                plugin.getLogger().warning("Could not read population history (" + file.getName() + "): " + e.getMessage() + " – starting fresh");
+                histogram = new PopulationHistogram(smoothing);
+            }
+        } else {
+            histogram.setSmoothing(smoothing);
+        }
+        if (sampleTask == null) {
+            sampleTask = Bukkit.getScheduler().runTaskTimer(plugin, this::sample, SAMPLE_INTERVAL_TICKS, SAMPLE_INTERVAL_TICKS);
+        }
+    }
+
+    /**
+     * Stop sampling and write the history synchronously. Keeps the loaded data for a later {@link #start(float)}.
+     */
+    public void stop() {
+        if (sampleTask == null) {
+            return;
+        }
+        sampleTask.cancel();
+        sampleTask = null;
+        save(histogram.snapshot(), nextSequence());
+    }
+
+    /** The live histogram, or null when population history is disabled. */
+    public PopulationHistogram getHistogram() {
+        return sampleTask != null ? histogram : null;
+    }
+
+    private void sample() {
+        histogram.record(LocalDateTime.now(), plugin.getOnlineCount());
+        if (++samplesSinceSave >= SAMPLES_PER_SAVE) {
+            samplesSinceSave = 0;
+            float[] snapshot = histogram.snapshot();
+            long sequence = nextSequence();
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> save(snapshot, sequence));
+        }
+    }
+
+    private synchronized long nextSequence() {
+        return ++snapshotSequence;
+    }
+
+    /**
+     * Write one snapshot. Synchronized because the hourly save runs async while stop() saves on the main thread, and
+     * both go through the same temp file; a snapshot older than the last one written is dropped.
+     */
+    private synchronized void save(float[] snapshot, long sequence) {
+        if (sequence <= savedSequence) {
+            return;
+        }
+        savedSequence = sequence;
+        try {
+            PopulationHistogram.save(snapshot, file);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not save population history: " + e.getMessage());
+        }
+    }
+}
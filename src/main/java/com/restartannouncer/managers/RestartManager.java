@@ -1,8 +1,11 @@
 package com.restartannouncer.managers;
 
 import com.restartannouncer.RestartAnnouncerPlugin;
-import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import com.restartannouncer.api.RestartGateRegistry;
+import com.restartannouncer.config.ShutdownMethod;
+import com.restartannouncer.messages.MessageKey;
+import com.restartannouncer.util.BackupChecker;
+import com.restartannouncer.util.RestartJournal;
 import org.bukkit.Bukkit;
 import org.bukkit.boss.BarColor;
 import org.bukkit.boss.BarStyle;
@@ -11,6 +14,12 @@ import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
 
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.List;
+import java.util.Map;
+
 public class RestartManager {
 
     private final RestartAnnouncerPlugin plugin;
@@ -20,8 +29,17 @@ public class RestartManager {
     private int initialTimeRemaining; // Store initial time for progress calculation
     private int announcementInterval;
     private String displayType;
-    private BossBar bossBar;
+    private final List<BossBar> bossBars = new ArrayList<>();
     private boolean isRunning;
+    private boolean flightRecordingDumped; // one Flight Recorder snapshot per countdown
+    // Restart journal: what started the countdown, when, and how long the shutdown waited on restart gates
+    private RestartJournal.Trigger trigger = RestartJournal.Trigger.NONE;
+    private long countdownStartedMillis;
+    private int countdownRanSeconds;
+    private long gateWaitStartedMillis;
+    private int gateWaitFlags;
+    /** Restart gates being waited on after the countdown; replaced or cleared to drop a stale completion. */
+    private CompletableFuture<List<String>> gateWait;
 
     public RestartManager(RestartAnnouncerPlugin plugin) {
         this.plugin = plugin;
@@ -29,13 +47,17 @@ public class RestartManager {
     }
 
     /**
-     * Start a restart countdown. Use startRestart(..., isScheduledRestart) when triggered by scheduled restart.
+     * Start a manual restart countdown. Use startRestart(..., trigger) when triggered by scheduled restart.
      */
     public boolean startRestart(int totalSeconds, int intervalSeconds, String displayType) {
-        return startRestart(totalSeconds, intervalSeconds, displayType, false);
+        return startRestart(totalSeconds, intervalSeconds, displayType, RestartJournal.Trigger.MANUAL);
     }
 
-    public boolean startRestart(int totalSeconds, int intervalSeconds, String displayType, boolean isScheduledRestart) {
+    /**
+     * Start a restart countdown. {@code trigger} is recorded in the restart journal; anything but MANUAL counts as a
+     * scheduled restart (wait-for-backup applies).
+     */
+    public boolean startRestart(int totalSeconds, int intervalSeconds, String displayType, RestartJournal.Trigger trigger) {
         if (isRunning) {
             return false;
         }
@@ -45,7 +67,12 @@ public class RestartManager {
         this.announcementInterval = intervalSeconds;
         this.displayType = displayType;
         this.isRunning = true;
-        plugin.setScheduledRestartActive(isScheduledRestart);
+        this.flightRecordingDumped = false;
+        this.trigger = trigger;
+        this.countdownStartedMillis = System.currentTimeMillis();
+        this.gateWaitStartedMillis = 0;
+        this.gateWaitFlags = 0;
+        plugin.setScheduledRestartActive(trigger != RestartJournal.Trigger.MANUAL);
 
         // Start the main countdown
         restartTask = new BukkitRunnable() {
@@ -53,7 +80,14 @@ public class RestartManager {
             public void run() {
                 timeRemaining--;
 
+                // Last minute: capture the Flight Recorder ring buffer before the JVM goes away
+                if (!flightRecordingDumped && timeRemaining <= 60) {
+                    flightRecordingDumped = true;
+                    plugin.dumpFlightRecording(plugin.isScheduledRestartActive() ? "scheduled" : "manual");
+                }
+
                 if (timeRemaining <= 0) {
+                    countdownRanSeconds = secondsSince(countdownStartedMillis);
                     // Cancel countdown tasks
                     if (restartTask != null) {
                         restartTask.cancel();
@@ -63,23 +97,20 @@ public class RestartManager {
                         announcementTask.cancel();
                         announcementTask = null;
                     }
-                    if (bossBar != null) {
-                        bossBar.removeAll();
-                        bossBar = null;
-                    }
+                    removeBossBars();
 
                     if (plugin.getConfigManager().shouldExecuteShutdown()) {
-                        // Only wait for backup if one is actually running (scheduled + wait-for-backup enabled)
-                        boolean backupRunning = plugin.isScheduledRestartActive() && plugin.getConfigManager().shouldWaitForBackup() && plugin.isBackupRunning();
-                        if (backupRunning) {
-                            plugin.getMessageManager().broadcastMessage(plugin.getMessageManager().getMessage("scheduled-restart.backup-delayed", "§eRestart delayed – backup in progress. Will restart when backup completes."));
-                            Bukkit.getScheduler().runTaskLater(plugin, RestartManager.this::waitForBackupThenShutdown, 20L);
+                        // Hold the restart while any gate is open (e.g. a backup for scheduled restarts)
+                        RestartGateRegistry.Wait wait = plugin.getRestartGates().await(
+                                plugin.getConfigManager().getRestartGateTimeoutSeconds(), TimeUnit.SECONDS);
+                        if (!wait.pending().isEmpty()) {
+                            waitForGatesThenShutdown(wait);
                         } else {
                             // Normal restart
                             Bukkit.getScheduler().runTaskLater(plugin, () -> {
                                 plugin.getMessageManager().broadcastMessage("§c§lServer is restarting now!");
+                                isRunning = false; // before the shutdown disables us, so onDisable doesn't journal a cancel
                                 executeShutdown();
-                                isRunning = false;
                             }, 20L);
                         }
                     } else {
@@ -93,25 +124,62 @@ public class RestartManager {
         // Start the announcement task
         startAnnouncements();
 
+        // Nobody online? Restart-when-empty may cut the countdown short
+        plugin.getEmptyServerRestartManager().evaluate();
+
         return true;
     }
 
     /**
-     * Only used when a backup was running at countdown. Poll until backup done, then delay, then reboot.
+     * Jump to the end of the running countdown; the next countdown tick performs the normal shutdown
+     * (including the wait-for-backup check). Used when the server is empty.
      */
-    private void waitForBackupThenShutdown() {
-        if (plugin.isBackupRunning()) {
-            plugin.getMessageManager().broadcastMessage(plugin.getMessageManager().getMessage("scheduled-restart.backup-delayed", "§eRestart delayed – backup in progress. Will restart when backup completes."));
-            Bukkit.getScheduler().runTaskLater(plugin, RestartManager.this::waitForBackupThenShutdown, 2400L); // 2 minutes
+    public void skipToEnd() {
+        if (!isRunning || timeRemaining <= 1) {
             return;
         }
-        // Backup finished – wait the delay then reboot
-        int delaySeconds = plugin.getConfigManager().getWaitForBackupDelaySeconds();
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            plugin.getMessageManager().broadcastMessage("§c§lServer is restarting now!");
-            executeShutdown();
-            isRunning = false;
-        }, (long) delaySeconds * 20L);
+        timeRemaining = 1;
+    }
+
+    /**
+     * Only used when a restart gate was open at the end of the countdown. Shuts down as soon as the last gate completes
+     * (or the gate timeout runs out), after wait-for-backup-delay when a backup was among them.
+     */
+    private void waitForGatesThenShutdown(RestartGateRegistry.Wait wait) {
+        gateWaitStartedMillis = System.currentTimeMillis();
+        List<String> others = new ArrayList<>(wait.pending());
+        boolean backup = others.remove(BackupChecker.GATE_NAME);
+        gateWaitFlags = (backup ? RestartJournal.FLAG_BACKUP_DELAYED : 0) | (others.isEmpty() ? 0 : RestartJournal.FLAG_GATE_DELAYED);
+        if (backup) {
+            plugin.getMessageManager().broadcast(MessageKey.SCHEDULED_BACKUP_DELAYED);
+        }
+        if (!others.isEmpty()) {
+            plugin.getMessageManager().broadcast(MessageKey.RESTART_GATES_WAITING, String.join(", ", others));
+        }
+        plugin.getLogger().info("Restart waiting for: " + String.join(", ", wait.pending()));
+
+        CompletableFuture<List<String>> completion = wait.completion();
+        gateWait = completion;
+        completion.thenAccept(open -> plugin.runSync(() -> {
+            if (gateWait != completion || !isRunning) {
+                return;
+            }
+            gateWait = null;
+            if (!open.isEmpty()) {
+                plugin.getLogger().warning("Restart gates still open after " + formatTime(plugin.getConfigManager().getRestartGateTimeoutSeconds())
+                        + ": " + String.join(", ", open) + " – restarting anyway.");
+            }
+            // Backup finished – wait the delay then reboot
+            long delayTicks = backup ? plugin.getConfigManager().getWaitForBackupDelaySeconds() * 20L : 20L;
+            Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                if (!isRunning) {
+                    return;
+                }
+                plugin.getMessageManager().broadcastMessage("§c§lServer is restarting now!");
+                isRunning = false;
+                executeShutdown();
+            }, delayTicks);
+        }));
     }
     
     private void startAnnouncements() {
@@ -194,57 +262,57 @@ public class RestartManager {
     
     private void sendAnnouncement(int timeLeft) {
         String timeString = formatTime(timeLeft);
-        String message = plugin.getMessageManager().getRestartMessage(timeString);
         
         switch (displayType) {
             case "bossbar":
-                sendBossBarMessage(message);
+                sendBossBarMessage(plugin.getMessageManager().renderForOnlinePlayers(MessageKey.RESTART_MESSAGE, timeString));
                 break;
             case "title":
-                sendTitleMessage(message);
+                sendTitleMessage(plugin.getMessageManager().renderForOnlinePlayers(MessageKey.RESTART_MESSAGE, timeString));
                 break;
             case "chat":
             default:
-                plugin.getMessageManager().broadcastMessage(message);
+                plugin.getMessageManager().broadcast(MessageKey.RESTART_MESSAGE, timeString);
                 break;
         }
     }
     
-    private void sendBossBarMessage(String message) {
-        // Remove old boss bar if it exists
-        if (bossBar != null) {
-            bossBar.removeAll();
-        }
-        
-        // Convert MiniMessage to legacy format
-        String legacyMessage = plugin.getMessageManager().formatMessage(message);
-        
-        // Create new boss bar
-        String plainMessage = LegacyComponentSerializer.legacySection().serialize(
-            LegacyComponentSerializer.legacySection().deserialize(legacyMessage)
-        );
-        
-        bossBar = Bukkit.createBossBar(plainMessage, BarColor.RED, BarStyle.SOLID);
+    /**
+     * One boss bar per distinct rendered text (i.e. per language present), each shown to its own players.
+     */
+    private void sendBossBarMessage(Map<String, List<Player>> messages) {
+        // Remove old boss bars if they exist
+        removeBossBars();
         
         // Calculate progress percentage (1.0 = full, 0.0 = empty)
         double progress = 1.0;
         if (initialTimeRemaining > 0) {
             progress = Math.max(0.0, Math.min(1.0, (double) timeRemaining / initialTimeRemaining));
         }
-        bossBar.setProgress(progress);
         
-        // Add all online players
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            bossBar.addPlayer(player);
+        for (Map.Entry<String, List<Player>> entry : messages.entrySet()) {
+            // Message is already rendered to legacy text by MessageManager
+            BossBar bar = Bukkit.createBossBar(entry.getKey(), BarColor.RED, BarStyle.SOLID);
+            bar.setProgress(progress);
+            for (Player player : entry.getValue()) {
+                bar.addPlayer(player);
+            }
+            bossBars.add(bar);
         }
     }
     
-    private void sendTitleMessage(String message) {
-        // Convert MiniMessage to legacy format
-        String legacyMessage = plugin.getMessageManager().formatMessage(message);
-        
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            player.sendTitle(legacyMessage, "", 10, 60, 10);
+    private void removeBossBars() {
+        for (BossBar bar : bossBars) {
+            bar.removeAll();
+        }
+        bossBars.clear();
+    }
+    
+    private void sendTitleMessage(Map<String, List<Player>> messages) {
+        for (Map.Entry<String, List<Player>> entry : messages.entrySet()) {
+            for (Player player : entry.getValue()) {
+                player.sendTitle(entry.getKey(), "", 10, 60, 10);
+            }
         }
     }
     
@@ -254,7 +322,10 @@ public class RestartManager {
         }
 
         isRunning = false;
+        gateWait = null;
         plugin.setScheduledRestartActive(false);
+        plugin.recordRestartEvent(new RestartJournal.Entry(System.currentTimeMillis(), RestartJournal.Event.CANCELLED,
+                trigger, 0, secondsSince(countdownStartedMillis), plugin.getOnlineCount(), 0, -1));
         
         if (restartTask != null) {
             restartTask.cancel();
@@ -266,10 +337,12 @@ public class RestartManager {
             announcementTask = null;
         }
         
-        // Clean up boss bar if it exists
-        if (bossBar != null) {
-            bossBar.removeAll();
-            bossBar = null;
+        // Clean up boss bars if they exist
+        removeBossBars();
+
+        ScheduledRestartManager scheduled = plugin.getScheduledRestartManager();
+        if (scheduled != null) {
+            scheduled.onCountdownStopped();
         }
     }
     
@@ -285,7 +358,7 @@ public class RestartManager {
         return formatTime(timeRemaining);
     }
     
-    private String formatTime(int seconds) {
+    public static String formatTime(int seconds) {
         if (seconds < 60) {
             return seconds + " seconds";
         } else if (seconds < 3600) {
@@ -322,17 +395,25 @@ public class RestartManager {
         }
     }
     
+    private static int secondsSince(long millis) {
+        return (int) Math.max(0, (System.currentTimeMillis() - millis + 500) / 1000);
+    }
+
     private void executeShutdown() {
-        String method = plugin.getConfigManager().getShutdownMethod();
+        boolean gateDelayed = gateWaitStartedMillis > 0;
+        plugin.recordRestartEvent(new RestartJournal.Entry(System.currentTimeMillis(), RestartJournal.Event.SHUTDOWN,
+                trigger, gateWaitFlags, countdownRanSeconds,
+                plugin.getOnlineCount(), gateDelayed ? secondsSince(gateWaitStartedMillis) : 0, -1));
+        ShutdownMethod method = plugin.getConfigManager().getShutdownMethod();
         
-        switch (method.toLowerCase()) {
-            case "stop":
+        switch (method) {
+            case STOP:
                 Bukkit.dispatchCommand(Bukkit.getConsoleSender(), "stop");
                 break;
-            case "restart":
+            case RESTART:
                 Bukkit.dispatchCommand(Bukkit.getConsoleSender(), "restart");
                 break;
-            case "shutdown":
+            case SHUTDOWN:
             default:
                 Bukkit.shutdown();
                 break;
@@ -1,104 +1,433 @@
 package com.restartannouncer.managers;
 
 import com.restartannouncer.RestartAnnouncerPlugin;
+import com.restartannouncer.messages.MessageKey;
+import com.restartannouncer.schedule.BlackoutCalendar;
+import com.restartannouncer.schedule.ReminderSpec;
 import com.restartannouncer.schedule.ScheduledRestartSpec;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
+import com.restartannouncer.util.RestartJournal;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Handles scheduled restarts using system clock.
- * Sends a chat reminder every N hours; when 1hr away, starts the normal countdown (10m intervals, then emergency).
+ * Sends the configured reminders at fixed offsets before the next restart; when the restart is its schedule's
+ * countdown length away, starts the normal countdown (10m intervals, then emergency). Several schedules are merged
+ * through a min-heap keyed by each one's next occurrence, so the next restart is the head and only the head is
+ * recomputed when it is used up. Reminder offsets become a sorted timeline whenever the head changes.
+ * Nothing polls: the earliest instant that needs action (countdown start, reminder, flexible window opening,
+ * restart-when-empty window) is computed once and one timer is armed for it. It is re-armed after it fires and
+ * when the manager is recreated on reload.
+ * The timer counts monotonic time, so a wall-clock step (NTP, VM pause, host suspend) would make it wake at the wrong
+ * wall time. A light watchdog compares wall-clock and monotonic time; on a jump everything is recomputed from now.
  */
 public class ScheduledRestartManager {
 
-    private static final long CHECK_INTERVAL_TICKS = 20L * 60; // every minute
-    private static final int ONE_HOUR_SECONDS = 3600;
     private static final int TEN_MINUTES_SECONDS = 600;
+    /** How often the watchdog compares wall-clock and monotonic time. */
+    private static final long CLOCK_CHECK_SECONDS = 30;
+    /** Disagreement between the two clocks treated as a jump; NTP slewing stays far below this. */
+    private static final long CLOCK_JUMP_TOLERANCE_MILLIS = 2000;
+    /** While a manual countdown runs, how often to look again at an instant that has already passed. */
+    private static final long BUSY_RECHECK_SECONDS = 30;
+
+    /** A schedule and its next restart (uptime policy applied). */
+    public record Upcoming(ScheduledRestartSpec spec, LocalDateTime at) {
+    }
+
+    private record TimedReminder(ReminderSpec reminder, LocalDateTime at) {
+    }
 
     private final RestartAnnouncerPlugin plugin;
-    private BukkitTask checkTask;
-    private int lastReminderHour = -1;
+    private ScheduledExecutorService timer;
+    private ScheduledFuture<?> armed;
+    private List<ScheduledRestartSpec> specs = List.of();
+    /** Wall-clock and monotonic readings from the last clock check; guarded by this. */
+    private long clockWallMillis;
+    private long clockNanos;
+    /** Bumped on every arm/stop so a wake-up already queued for the main thread is ignored. */
+    private int generation;
+    /** One entry per schedule, earliest restart first. */
+    private final PriorityQueue<Upcoming> queue = new PriorityQueue<>(Comparator.comparing(Upcoming::at));
+    /** Reminders for {@link #timelineFor}, earliest first; entries before {@link #timelineIndex} have been sent. */
+    private List<TimedReminder> timeline = List.of();
+    private int timelineIndex;
+    private Upcoming timelineFor;
+    /** Restart instant whose reminders were last sent and the latest reminder sent for it, so a rebuilt timeline never repeats one. */
+    private LocalDateTime remindedFor;
+    private LocalDateTime remindedThrough;
+    private BlackoutCalendar blackouts = BlackoutCalendar.EMPTY;
 
     public ScheduledRestartManager(RestartAnnouncerPlugin plugin) {
         this.plugin = plugin;
     }
 
     public void start() {
-        if (checkTask != null) {
+        if (timer != null) {
             return;
         }
-        if (ScheduledRestartSpec.fromConfig(plugin.getConfig(), plugin.getLogger()) == null) {
+        List<ScheduledRestartSpec> specs = plugin.getConfigManager().getScheduledRestartSpecs();
+        if (specs == null || specs.isEmpty()) {
             plugin.getLogger().warning("Scheduled restart disabled: fix scheduled-restart settings in config.yml.");
             return;
         }
+        blackouts = BlackoutCalendar.load(plugin.getConfigManager().getConfig(), plugin.getDataFolder(), plugin.getLogger());
+        if (!specs.isEmpty() && specs.get(0).getJitterSeconds() > 0) {
+            plugin.getLogger().info("Scheduled restarts on this server are offset by " + specs.get(0).getJitterSeconds()
+                    + "s (scheduled-restart.jitter).");
+        }
+        this.specs = specs;
+        fillQueue(LocalDateTime.now());
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "RestartAnnouncer-Schedule");
+            t.setDaemon(true);
+            return t;
+        });
+        clockDriftMillis();
+        timer.scheduleAtFixedRate(this::checkClock, CLOCK_CHECK_SECONDS, CLOCK_CHECK_SECONDS, TimeUnit.SECONDS);
+        arm();
+    }
 
-        checkTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (!plugin.getConfigManager().isScheduledRestartEnabled()) {
-                    cancel();
-                    checkTask = null;
-                    return;
-                }
-                tick();
-            }
-        }.runTaskTimer(plugin, CHECK_INTERVAL_TICKS, CHECK_INTERVAL_TICKS);
+    private void fillQueue(LocalDateTime now) {
+        queue.clear();
+        for (ScheduledRestartSpec spec : specs) {
+            queue.add(new Upcoming(spec, nextRestart(spec, now)));
+        }
+    }
+
+    /**
+     * How far wall-clock time moved beyond monotonic time since the previous call (negative when it stepped back),
+     * then takes new readings. Called from the watchdog and on every wake-up.
+     */
+    private synchronized long clockDriftMillis() {
+        long wall = System.currentTimeMillis();
+        long nanos = System.nanoTime();
+        long drift = clockNanos == 0 ? 0 : (wall - clockWallMillis) - TimeUnit.NANOSECONDS.toMillis(nanos - clockNanos);
+        clockWallMillis = wall;
+        clockNanos = nanos;
+        return drift;
+    }
+
+    /** Watchdog tick on the timer thread; only a detected jump reaches the main thread. */
+    private void checkClock() {
+        long drift = clockDriftMillis();
+        if (Math.abs(drift) > CLOCK_JUMP_TOLERANCE_MILLIS) {
+            plugin.runSync(() -> onClockJump(drift));
+        }
+    }
+
+    /**
+     * The wall clock jumped: log it once and recompute every schedule, the reminder timeline and the timer from the
+     * current time. Reminders already sent for the same restart are not sent again.
+     */
+    private void onClockJump(long driftMillis) {
+        if (timer == null) {
+            return;
+        }
+        plugin.getLogger().warning("System clock jumped " + (driftMillis > 0 ? "forward" : "back") + " by "
+                + RestartManager.formatTime((int) Math.min(Integer.MAX_VALUE, Math.abs(driftMillis) / 1000))
+                + " (NTP step, VM pause or suspend) – rescheduling restarts from the current time.");
+        fillQueue(LocalDateTime.now());
+        timelineFor = null;
+        arm();
+    }
+
+    /**
+     * Next scheduled occurrence adjusted by the uptime policy (max uptime / minimum time since boot), then moved out
+     * of any blackout window.
+     */
+    private LocalDateTime nextRestart(ScheduledRestartSpec s, LocalDateTime now) {
+        return blackouts.adjust(s, plugin.getConfigManager().getUptimePolicy().nextRestart(s, now, s.getCountdownSeconds()));
     }
 
     public void stop() {
-        if (checkTask != null) {
-            checkTask.cancel();
-            checkTask = null;
+        generation++;
+        if (armed != null) {
+            armed.cancel(false);
+            armed = null;
+        }
+        if (timer != null) {
+            timer.shutdownNow();
+            timer = null;
         }
-        lastReminderHour = -1;
+        queue.clear();
+        timeline = List.of();
+        timelineFor = null;
+        remindedFor = null;
+        remindedThrough = null;
     }
 
-    private void tick() {
-        ScheduledRestartSpec s = ScheduledRestartSpec.fromConfig(plugin.getConfig(), plugin.getLogger());
-        if (s == null) {
-            plugin.getLogger().warning("Scheduled restart config is invalid; stopping the scheduled-restart task.");
-            stop();
+    /**
+     * Seconds until the next scheduled restart, or -1 when the scheduler is not running or the config is invalid.
+     */
+    public long getSecondsUntilNextRestart() {
+        Upcoming head = queue.peek();
+        if (timer == null || head == null) {
+            return -1;
+        }
+        return Math.max(0, ChronoUnit.SECONDS.between(LocalDateTime.now(), head.at()));
+    }
+
+    /**
+     * The next {@code limit} restarts across all schedules, earliest first. Occurrences after the first of each
+     * schedule follow its recurrence only, since the uptime policy starts over once the server has restarted.
+     */
+    public List<Upcoming> getUpcoming(int limit) {
+        List<Upcoming> result = new ArrayList<>(limit);
+        if (timer == null) {
+            return result;
+        }
+        PriorityQueue<Upcoming> copy = new PriorityQueue<>(queue);
+        LocalDateTime last = null;
+        while (result.size() < limit && !copy.isEmpty()) {
+            Upcoming next = copy.poll();
+            // Several schedules can share the uptime limit; list that instant once
+            if (!next.at().equals(last)) {
+                result.add(next);
+                last = next.at();
+            }
+            copy.add(new Upcoming(next.spec(), blackouts.adjust(next.spec(), next.spec().nextOccurrenceAfter(next.at()))));
+        }
+        return result;
+    }
+
+    /**
+     * Bring the next scheduled restart forward: start its countdown now with the given length, unless the restart
+     * would then fall inside a blackout window. Returns true if the countdown started.
+     */
+    public boolean startCountdownNow(int countdownSeconds) {
+        LocalDateTime restartAt = LocalDateTime.now().plusSeconds(Math.max(1, countdownSeconds));
+        if (blackouts.blockedUntil(restartAt) != null) {
+            return false;
+        }
+        beginCountdown(countdownSeconds, RestartJournal.Trigger.SCHEDULED_EARLY);
+        return true;
+    }
+
+    /**
+     * Start the countdown for the next scheduled restart now, with the given length and that schedule's display,
+     * and stop the timer (the countdown takes over).
+     */
+    private void beginCountdown(int countdownSeconds, RestartJournal.Trigger trigger) {
+        if (plugin.getRestartManager().isRunning()) {
             return;
         }
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime nextRestart = s.nextOccurrenceAfter(now);
+        Upcoming head = queue.peek();
+        String display = head != null ? head.spec().getDisplayType() : "chat";
+        plugin.getRestartManager().startRestart(Math.max(1, countdownSeconds), TEN_MINUTES_SECONDS, display, trigger);
+        stop();
+    }
+
+    /** Main thread. A manual countdown was stopped; re-arm from the current time instead of waiting for the back-off. */
+    public void onCountdownStopped() {
+        arm();
+    }
+
+    /**
+     * Called from join/quit events. Inside the flexible window, a drop below the threshold starts the restart.
+     */
+    public void onOnlineCountChanged(int onlineCount) {
+        Upcoming head = queue.peek();
+        if (head == null || head.spec().getFlexibleWindow() == null || plugin.getRestartManager().isRunning()) {
+            return;
+        }
+        tryFlexibleWindowRestart(head.spec(), LocalDateTime.now(), head.at(), onlineCount);
+    }
+
+    /**
+     * Start the short flexible-window countdown if we are inside the window and the server is quiet enough.
+     * Once the forced countdown has started this does nothing.
+     */
+    private boolean tryFlexibleWindowRestart(ScheduledRestartSpec s, LocalDateTime now, LocalDateTime nextRestart, int onlineCount) {
+        ScheduledRestartSpec.FlexibleWindow window = s.getFlexibleWindow();
+        if (window == null || now.isBefore(window.windowStart(nextRestart))) {
+            return false;
+        }
+        if (onlineCount >= window.getMaxPlayers()) {
+            return false;
+        }
         long secondsUntil = ChronoUnit.SECONDS.between(now, nextRestart);
-        if (secondsUntil < 0) {
-            secondsUntil = 0;
+        if (secondsUntil <= s.getCountdownSeconds()) {
+            return false;
+        }
+        if (!startCountdownNow(window.getCountdownSeconds())) {
+            return false;
+        }
+        plugin.getLogger().info("Scheduled restart window open and " + onlineCount + " player(s) online – restarting early (forced at "
+                + s.formatReminderTime(nextRestart) + ")");
+        return true;
+    }
+
+    /**
+     * Take the head of the queue as the next restart and arm one timer for the earliest instant that needs action.
+     * Main thread.
+     */
+    private void arm() {
+        if (timer == null) {
+            return;
+        }
+        if (armed != null) {
+            armed.cancel(false);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Upcoming head = queue.peek();
+        ScheduledRestartSpec spec = head.spec();
+        LocalDateTime nextRestart = head.at();
+        if (head != timelineFor) {
+            buildTimeline(head, now);
+        }
+
+        LocalDateTime wake = nextRestart.minusSeconds(spec.getCountdownSeconds());
+        if (timelineIndex < timeline.size() && timeline.get(timelineIndex).at().isBefore(wake)) {
+            wake = timeline.get(timelineIndex).at();
+        }
+        ScheduledRestartSpec.FlexibleWindow window = spec.getFlexibleWindow();
+        if (window != null) {
+            wake = earliestFuture(now, wake, window.windowStart(nextRestart));
+        }
+        int emptyWindowMinutes = plugin.getConfigManager().getEmptyServerRestartScheduledWindowMinutes();
+        if (plugin.getConfigManager().isEmptyServerRestartEnabled() && emptyWindowMinutes > 0) {
+            wake = earliestFuture(now, wake, nextRestart.minusMinutes(emptyWindowMinutes));
+        }
+
+        if (!wake.isAfter(now) && plugin.getRestartManager().isRunning()) {
+            // The countdown start has passed during a manual countdown; back off instead of waking every tick
+            wake = now.plusSeconds(BUSY_RECHECK_SECONDS);
+        }
+
+        int armedGeneration = ++generation;
+        long delayMillis = Math.max(0, Duration.between(now, wake).toMillis());
+        armed = timer.schedule(() -> plugin.runSync(() -> fire(armedGeneration)), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** {@code candidate} if it is after {@code now} and before {@code current}, else {@code current}. */
+    private static LocalDateTime earliestFuture(LocalDateTime now, LocalDateTime current, LocalDateTime candidate) {
+        return candidate.isAfter(now) && candidate.isBefore(current) ? candidate : current;
+    }
+
+    /**
+     * Reminder instants for the restart at {@code head}, earliest first. Reminders that are already past, or that fall
+     * inside the countdown (which announces by itself), are left out.
+     */
+    private void buildTimeline(Upcoming head, LocalDateTime now) {
+        List<TimedReminder> built = new ArrayList<>();
+        for (ReminderSpec reminder : plugin.getConfigManager().getScheduledRestartReminders()) {
+            LocalDateTime at = head.at().minusSeconds(reminder.getOffsetSeconds());
+            boolean alreadySent = head.at().equals(remindedFor) && !at.isAfter(remindedThrough);
+            if (reminder.getOffsetSeconds() > head.spec().getCountdownSeconds() && at.isAfter(now) && !alreadySent) {
+                built.add(new TimedReminder(reminder, at));
+            }
         }
+        // Reminders are sorted by offset, longest first, so their instants are already ascending
+        timeline = built;
+        timelineIndex = 0;
+        timelineFor = head;
+    }
 
+    private void sendReminder(ReminderSpec reminder, ScheduledRestartSpec spec, LocalDateTime restartAt, LocalDateTime now) {
+        MessageManager messages = plugin.getMessageManager();
+        String[] args = {
+                spec.formatReminderTime(restartAt),
+                ZonedDateTime.now().format(DateTimeFormatter.ofPattern("z")),
+                RestartManager.formatTime((int) Math.min(Integer.MAX_VALUE, ChronoUnit.SECONDS.between(now, restartAt)))
+        };
+        Map<String, List<Player>> rendered;
+        String console;
+        if (reminder.getMessage() == null) {
+            rendered = messages.renderForOnlinePlayers(MessageKey.SCHEDULED_REMINDER, args);
+            console = messages.getMessage(MessageKey.SCHEDULED_REMINDER, args);
+        } else {
+            console = messages.compile("config.yml scheduled-restart.reminders." + reminder.getName() + ".message",
+                    reminder.getMessage(), MessageKey.SCHEDULED_REMINDER.getPlaceholders()).render(args);
+            rendered = Map.of(console, new ArrayList<>(Bukkit.getOnlinePlayers()));
+        }
+        for (Map.Entry<String, List<Player>> entry : rendered.entrySet()) {
+            for (Player player : entry.getValue()) {
+                switch (reminder.getChannel()) {
+                    case ACTIONBAR -> player.sendActionBar(entry.getKey());
+                    case TITLE -> player.sendTitle(entry.getKey(), "", 10, 60, 10);
+                    default -> player.sendMessage(entry.getKey());
+                }
+            }
+        }
+        Bukkit.getConsoleSender().sendMessage(console);
+    }
+
+    private void fire(int firedGeneration) {
+        if (firedGeneration != generation || timer == null) {
+            return;
+        }
+        armed = null;
+        long drift = clockDriftMillis();
+        if (Math.abs(drift) > CLOCK_JUMP_TOLERANCE_MILLIS) {
+            onClockJump(drift);
+            return;
+        }
         if (plugin.getRestartManager().isRunning()) {
+            // A manual countdown is running: reminders that came due are dropped, then look again later
+            LocalDateTime now = LocalDateTime.now();
+            while (timelineIndex < timeline.size() && !now.isBefore(timeline.get(timelineIndex).at())) {
+                timelineIndex++;
+            }
+            arm();
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Upcoming head = queue.peek();
+        ScheduledRestartSpec spec = head.spec();
+        LocalDateTime nextRestart = head.at();
+        long secondsUntil = Math.max(0, ChronoUnit.SECONDS.between(now, nextRestart));
+        if (secondsUntil <= spec.getCountdownSeconds()) {
+            if (secondsUntil > 0) {
+                String when = spec.formatReminderTime(nextRestart);
+                plugin.getLogger().info("Scheduled restart '" + spec.getName() + "' at " + when + " – starting countdown (in " + secondsUntil + "s)");
+                beginCountdown((int) secondsUntil, RestartJournal.Trigger.SCHEDULED);
+                return;
+            }
+            // Missed entirely (e.g. the machine was suspended): only this schedule moves on to its next occurrence
+            queue.poll();
+            queue.add(new Upcoming(spec, nextRestart(spec, now)));
+            arm();
             return;
         }
 
-        if (secondsUntil <= ONE_HOUR_SECONDS && secondsUntil > 0) {
-            String when = s.formatReminderTime(nextRestart);
-            plugin.getLogger().info("Scheduled restart at " + when + " – starting 1hr countdown (in " + secondsUntil + "s)");
-            plugin.getRestartManager().startRestart((int) secondsUntil, TEN_MINUTES_SECONDS, "chat", true);
-            stop();
+        // Flexible window: restart at the first quiet moment instead of waiting for the forced time
+        if (tryFlexibleWindowRestart(spec, now, nextRestart, plugin.getOnlineCount())) {
             return;
         }
 
-        int reminderHours = plugin.getConfigManager().getScheduledRestartReminderIntervalHours();
-        if (reminderHours <= 0) {
-            reminderHours = 4;
+        // Restart-when-empty may bring the restart forward once it is close enough
+        plugin.getEmptyServerRestartManager().evaluate();
+        if (timer == null) {
+            return;
         }
-        int currentHour = now.getHour();
-        int currentMinute = now.getMinute();
 
-        if (secondsUntil > ONE_HOUR_SECONDS && currentMinute == 0 && (currentHour % reminderHours == 0) && currentHour != lastReminderHour) {
-            lastReminderHour = currentHour;
-            String timeStr = s.formatReminderTime(nextRestart);
-            String timezone = ZonedDateTime.now().format(DateTimeFormatter.ofPattern("z"));
-            String message = plugin.getMessageManager().getMessage("scheduled-restart.reminder", "§eNext scheduled restart: §f%time% §7(%timezone%)")
-                .replace("%time%", timeStr)
-                .replace("%timezone%", timezone);
-            plugin.getMessageManager().broadcastMessage(message);
+        // Several reminders can be due at once after a stall (or a suspended machine); only the latest is sent
+        TimedReminder due = null;
+        while (timelineIndex < timeline.size() && !now.isBefore(timeline.get(timelineIndex).at())) {
+            due = timeline.get(timelineIndex++);
+        }
+        if (due != null) {
+            remindedFor = nextRestart;
+            remindedThrough = due.at();
+            sendReminder(due.reminder(), spec, nextRestart, now);
         }
+        arm();
     }
 }
@@ -0,0 +1,50 @@
+package com.restartannouncer.messages;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of messages.yml: every string leaf flattened to its dotted path, plus the compiled
+ * template for each {@link MessageKey}. Lookups are a single hash probe or array index, and a snapshot can be
+ * read from any thread. Reloading builds a new bundle and swaps the reference.
+ */
+public final class MessageBundle {
+
+    private final Map<String, String> raw;
+    private final MessageTemplate[] templates;
+
+    public MessageBundle(Map<String, String> raw, MessageTemplate[] templates) {
+        this.raw = Collections.unmodifiableMap(new HashMap<>(raw));
+        this.templates = templates.clone();
+    }
+
+    /**
+     * Flatten all string values of {@code section} to dotted paths (e.g. "commands.start.usage").
+     */
+    public static Map<String, String> flatten(ConfigurationSection section) {
+        Map<String, String> flat = new HashMap<>();
+        for (Map.Entry<String, Object> entry : section.getValues(true).entrySet()) {
+            if (entry.getValue() instanceof String) {
+                flat.put(entry.getKey(), (String) entry.getValue());
+            }
+        }
+        return flat;
+    }
+
+    /** Raw (unformatted) message at {@code path}, or null when missing. */
+    public String get(String path) {
+        return raw.get(path);
+    }
+
+    public MessageTemplate template(MessageKey key) {
+        return templates[key.ordinal()];
+    }
+
+    /** All raw messages by path (read-only). */
+    public Map<String, String> asMap() {
+        return raw;
+    }
+}
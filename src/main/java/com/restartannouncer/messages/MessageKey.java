@@ -0,0 +1,84 @@
+package com.restartannouncer.messages;
+
+/**
+ * Known messages.yml entries, with their fallback text and the placeholders they accept (in argument order).
+ */
+public enum MessageKey {
+
+    RESTART_MESSAGE("restart-message", "", "time"),
+    RESTART_GATES_WAITING("restart-delayed", "<yellow>Restart delayed – waiting for: <white>%gates%", "gates"),
+
+    SCHEDULED_REMINDER("scheduled-restart.reminder", "§eNext scheduled restart: §f%time% §7(%timezone%, in %remaining%)", "time", "timezone", "remaining"),
+    SCHEDULED_BACKUP_DELAYED("scheduled-restart.backup-delayed", "§eRestart delayed – backup in progress. Will restart when backup completes."),
+
+    NO_PERMISSION("commands.no-permission", ""),
+    PLAYER_ONLY("commands.player-only", ""),
+
+    START_NO_PERMISSION("commands.start.no-permission", ""),
+    START_USAGE("commands.start.usage", ""),
+    START_EXAMPLE("commands.start.example", ""),
+    START_ALREADY_RUNNING("commands.start.already-running", ""),
+    START_SUCCESS("commands.start.success", "", "time", "interval", "display"),
+    START_INVALID_TIME("commands.start.invalid-time", ""),
+    START_INVALID_INTERVAL("commands.start.invalid-interval", ""),
+    START_INVALID_DISPLAY("commands.start.invalid-display", ""),
+
+    STOP_NO_PERMISSION("commands.stop.no-permission", ""),
+    STOP_NOT_RUNNING("commands.stop.not-running", ""),
+    STOP_SUCCESS("commands.stop.success", ""),
+
+    STATUS_NO_PERMISSION("commands.status.no-permission", ""),
+    STATUS_RUNNING("commands.status.running", "", "time"),
+    STATUS_NOT_RUNNING("commands.status.not-running", ""),
+    STATUS_UPCOMING_HEADER("commands.status.upcoming-header", "<blue>Upcoming scheduled restarts:"),
+    STATUS_UPCOMING_ENTRY("commands.status.upcoming-entry", "<gray>- <white>%time% <gray>(%name%, in %remaining%)", "time", "name", "remaining"),
+
+    HELP_HEADER("commands.help.header", ""),
+    HELP_START("commands.help.start", ""),
+    HELP_STOP("commands.help.stop", ""),
+    HELP_STATUS("commands.help.status", ""),
+    HELP_TOGGLE("commands.help.toggle", ""),
+    HELP_SET("commands.help.set", ""),
+    HELP_BLACKOUT("commands.help.blackout", "  /announcer blackout import <file> - Replace the blackout calendar"),
+    HELP_HISTORY("commands.help.history", "  /announcer history [n] - Show recent restarts and restart statistics"),
+    HELP_HELP("commands.help.help", ""),
+
+    RELOAD_NO_PERMISSION("commands.reload.no-permission", ""),
+    RELOAD_SUCCESS("commands.reload.success", "", "ms"),
+    BLACKOUT_USAGE("commands.blackout.usage", "<red>Usage: /announcer blackout import <file>"),
+    BLACKOUT_IMPORTED("commands.blackout.imported", "<green>Imported %count% blackout windows from %file%.", "count", "file"),
+    BLACKOUT_IMPORT_FAILED("commands.blackout.import-failed", "<red>Blackout import failed: %error%", "error"),
+
+    HISTORY_HEADER("commands.history.header", "<blue>Last %count% restart events:", "count"),
+    HISTORY_EMPTY("commands.history.empty", "<blue>No restarts recorded yet."),
+    HISTORY_ENTRY("commands.history.entry", "<gray>- <white>%time% <yellow>%event% <gray>%details%", "time", "event", "details"),
+    HISTORY_STATS("commands.history.stats", "<blue>Last %days% days: <white>%restarts% <gray>restarts (%rate% per week), mean downtime <white>%downtime%", "days", "restarts", "rate", "downtime"),
+    HISTORY_FAILED("commands.history.failed", "<red>Could not read the restart history: %error%", "error"),
+
+    RELOAD_FAILED("commands.reload.failed", "<red>Reload failed, keeping the previous configuration: %error%", "error");
+
+    private final String path;
+    private final String defaultValue;
+    private final String[] placeholders;
+
+    MessageKey(String path, String defaultValue, String... placeholders) {
+        this.path = path;
+        this.defaultValue = defaultValue;
+        this.placeholders = placeholders;
+    }
+
+    /** Path in messages.yml. */
+    public String getPath() {
+        return path;
+    }
+
+    /** Used when the path is missing or empty in messages.yml. */
+    public String getDefaultValue() {
+        return defaultValue;
+    }
+
+    /** Placeholder names without percent signs, in the order render arguments are passed. */
+    public String[] getPlaceholders() {
+        return placeholders;
+    }
+}
@@ -0,0 +1,150 @@
+package com.restartannouncer.messages;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message compiled once at load into literal segments and indexed placeholder slots.
+ * Rendering copies literals and arguments into one builder; no map, no repeated {@code String.replace}.
+ * Placeholders are found in the raw text and replaced by one-character marks ({@link #mark}) before any formatting,
+ * so a gradient or rainbow that colors every character separately cannot split them.
+ */
+public final class MessageTemplate {
+
+    /** Mark for placeholder 0; placeholder i is {@code MARK + i}. Private use area, never produced by formatting. */
+    private static final char MARK = '\uE000';
+    /** Marks available (U+E000 - U+E0FF). */
+    private static final int MAX_MARKS = 256;
+
+    /** {@code literals.length == slots.length + 1}; slot i sits between literals i and i + 1. */
+    private final String[] literals;
+    /** Argument index for each slot. */
+    private final int[] slots;
+    private final int literalLength;
+
+    private MessageTemplate(String[] literals, int[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compile {@code text}, turning each {@code %name%} whose name is in {@code placeholders} into a slot for the
+     * argument at that position. Any other percent text stays literal.
+     */
+    public static MessageTemplate compile(String text, String... placeholders) {
+        return compileMarked(mark(text, placeholders), placeholders.length);
+    }
+
+    /**
+     * Replace each {@code %name%} in raw message text whose name is in {@code placeholders} with its one-character
+     * mark. Format the result (MiniMessage, legacy tags), then pass it to {@link #compileMarked}. Any other percent
+     * text stays literal; stray mark characters already in {@code raw} are dropped.
+     */
+    public static String mark(String raw, String... placeholders) {
+        if (placeholders.length > MAX_MARKS) {
+            throw new IllegalArgumentException("at most " + MAX_MARKS + " placeholders");
+        }
+        StringBuilder out = new StringBuilder(raw.length());
+        int literalStart = 0;
+        int i = placeholders.length == 0 ? -1 : raw.indexOf('%');
+        while (i >= 0) {
+            int end = raw.indexOf('%', i + 1);
+            if (end < 0) {
+                break;
+            }
+            int index = indexOf(placeholders, raw, i + 1, end);
+            if (index < 0) {
+                // Not one of ours - keep the first '%' literal and retry from the second
+                i = end;
+                continue;
+            }
+            appendWithoutMarks(out, raw, literalStart, i);
+            out.append((char) (MARK + index));
+            literalStart = end + 1;
+            i = raw.indexOf('%', literalStart);
+        }
+        appendWithoutMarks(out, raw, literalStart, raw.length());
+        return out.toString();
+    }
+
+    private static void appendWithoutMarks(StringBuilder out, String text, int from, int to) {
+        for (int k = from; k < to; k++) {
+            char c = text.charAt(k);
+            if (c < MARK || c >= MARK + MAX_MARKS) {
+                out.append(c);
+            }
+        }
+    }
+
+    /**
+     * Compile formatted text produced from a {@link #mark}ed string: every mark for one of the first
+     * {@code placeholderCount} placeholders becomes a slot. Formatting codes in front of a mark (e.g. one step of a
+     * gradient) stay in the preceding literal and color the argument.
+     */
+    public static MessageTemplate compileMarked(String text, int placeholderCount) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int literalStart = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int index = text.charAt(i) - MARK;
+            if (index >= 0 && index < placeholderCount) {
+                literals.add(text.substring(literalStart, i));
+                slots.add(index);
+                literalStart = i + 1;
+            }
+        }
+        if (slots.isEmpty()) {
+            return new MessageTemplate(new String[] {text}, new int[0]);
+        }
+        literals.add(text.substring(literalStart));
+        int[] slotArray = new int[slots.size()];
+        for (int k = 0; k < slotArray.length; k++) {
+            slotArray[k] = slots.get(k);
+        }
+        return new MessageTemplate(literals.toArray(new String[0]), slotArray);
+    }
+
+    private static int indexOf(String[] placeholders, String text, int from, int to) {
+        for (int k = 0; k < placeholders.length; k++) {
+            String name = placeholders[k];
+            if (name.length() == to - from && text.startsWith(name, from)) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    public boolean hasPlaceholders() {
+        return slots.length > 0;
+    }
+
+    /**
+     * Render with positional arguments (same order as the placeholder names used to compile). Missing arguments render empty.
+     */
+    public String render(String... args) {
+        if (slots.length == 0) {
+            return literals[0];
+        }
+        int length = literalLength;
+        for (int slot : slots) {
+            if (slot < args.length && args[slot] != null) {
+                length += args[slot].length();
+            }
+        }
+        StringBuilder out = new StringBuilder(length);
+        for (int k = 0; k < slots.length; k++) {
+            out.append(literals[k]);
+            int slot = slots[k];
+            if (slot < args.length && args[slot] != null) {
+                out.append(args[slot]);
+            }
+        }
+        out.append(literals[slots.length]);
+        return out.toString();
+    }
+}
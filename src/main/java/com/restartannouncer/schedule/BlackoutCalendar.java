@@ -0,0 +1,329 @@
+package com.restartannouncer.schedule;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Windows in which no scheduled restart may happen (tournaments, events): one-off date ranges and recurring weekly
+ * windows. Each kind is merged into non-overlapping [start, end) intervals in a {@link TreeMap}, so whether an
+ * instant is blocked, and until when, is one floor lookup per kind. Immutable; rebuilt when the scheduler starts.
+ * <p>
+ * Entry syntax (config lists and the calendar file): {@code SAT 18:00 to 23:00}, {@code FRI 22:00 to SAT 02:00},
+ * {@code 2026-12-24}, {@code 2026-12-24 to 2026-12-26} (whole days) or {@code 2026-07-04 18:00 to 2026-07-05 01:00}.
+ */
+public final class BlackoutCalendar {
+
+    public enum Mode {
+        /** Move a blocked restart to the end of its window. */
+        SHIFT,
+        /** Use the schedule's next occurrence that is not blocked. */
+        SKIP
+    }
+
+    public static final BlackoutCalendar EMPTY = new BlackoutCalendar(new TreeMap<>(), new TreeMap<>(), Mode.SHIFT);
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+    /** Adjacent windows (e.g. a weekly window running into a one-off one) are followed up to this many times. */
+    private static final int MAX_CHAIN = 64;
+    /** SKIP gives up and shifts after this many blocked occurrences in a row. */
+    private static final int MAX_SKIPS = 366;
+    private static final Pattern TO = Pattern.compile("\\s+to\\s+", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+
+    /** One-off windows: start -&gt; end. */
+    private final TreeMap<LocalDateTime, LocalDateTime> dates;
+    /** Weekly windows in minutes since Monday 00:00: start -&gt; end. Windows crossing Sunday midnight are split. */
+    private final TreeMap<Integer, Integer> weekly;
+    private final Mode mode;
+
+    private BlackoutCalendar(TreeMap<LocalDateTime, LocalDateTime> dates, TreeMap<Integer, Integer> weekly, Mode mode) {
+        this.dates = dates;
+        this.weekly = weekly;
+        this.mode = mode;
+    }
+
+    /**
+     * Windows from scheduled-restart.blackouts (weekly and dates lists) plus its calendar file in {@code dataFolder}.
+     * Invalid entries are logged and skipped.
+     */
+    public static BlackoutCalendar load(FileConfiguration config, File dataFolder, Logger log) {
+        Builder builder = new Builder();
+        for (String path : List.of("scheduled-restart.blackouts.weekly", "scheduled-restart.blackouts.dates")) {
+            for (String entry : config.getStringList(path)) {
+                try {
+                    builder.add(entry);
+                } catch (IllegalArgumentException e) {
+                    log.warning(path + ": " + e.getMessage());
+                }
+            }
+        }
+        File file = calendarFile(config, dataFolder);
+        if (file != null && file.exists()) {
+            try {
+                for (String error : builder.addLines(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8))) {
+                    log.warning(file.getName() + ": " + error);
+                }
+            } catch (IOException e) {
+                log.warning("Could not read " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        String modeName = config.getString("scheduled-restart.blackouts.mode", "SHIFT");
+        Mode mode;
+        try {
+            mode = Mode.valueOf(modeName.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            log.warning("scheduled-restart.blackouts.mode must be SHIFT or SKIP, got: " + modeName + " (using SHIFT)");
+            mode = Mode.SHIFT;
+        }
+        return builder.build(mode, log);
+    }
+
+    /** The calendar file from scheduled-restart.blackouts.file, or null when none is configured. */
+    public static File calendarFile(FileConfiguration config, File dataFolder) {
+        String fileName = config.getString("scheduled-restart.blackouts.file", "");
+        return fileName == null || fileName.isBlank() ? null : new File(dataFolder, fileName.trim());
+    }
+
+    /** Number of merged windows. */
+    public int size() {
+        return dates.size() + weekly.size();
+    }
+
+    /**
+     * End of the blackout containing {@code time} (following windows that start where it ends), or null if
+     * {@code time} is not blocked.
+     */
+    public LocalDateTime blockedUntil(LocalDateTime time) {
+        LocalDateTime until = null;
+        LocalDateTime current = time;
+        for (int i = 0; i < MAX_CHAIN; i++) {
+            LocalDateTime end = windowEnd(current);
+            if (end == null) {
+                break;
+            }
+            until = end;
+            current = end;
+        }
+        return until;
+    }
+
+    private LocalDateTime windowEnd(LocalDateTime time) {
+        LocalDateTime end = null;
+        Map.Entry<LocalDateTime, LocalDateTime> date = dates.floorEntry(time);
+        if (date != null && date.getValue().isAfter(time)) {
+            end = date.getValue();
+        }
+        if (!weekly.isEmpty()) {
+            LocalDateTime minute = time.truncatedTo(ChronoUnit.MINUTES);
+            int minuteOfWeek = minuteOfWeek(minute.getDayOfWeek(), minute.toLocalTime());
+            Map.Entry<Integer, Integer> window = weekly.floorEntry(minuteOfWeek);
+            if (window != null && window.getValue() > minuteOfWeek) {
+                LocalDateTime weeklyEnd = minute.plusMinutes(window.getValue() - minuteOfWeek);
+                if (end == null || weeklyEnd.isAfter(end)) {
+                    end = weeklyEnd;
+                }
+            }
+        }
+        return end;
+    }
+
+    /**
+     * {@code occurrence} of {@code spec} with blackouts applied: unchanged when free, otherwise moved to the end of
+     * the window (SHIFT) or replaced by the next free occurrence (SKIP).
+     */
+    public LocalDateTime adjust(ScheduledRestartSpec spec, LocalDateTime occurrence) {
+        LocalDateTime until = blockedUntil(occurrence);
+        if (until == null) {
+            return occurrence;
+        }
+        if (mode == Mode.SKIP) {
+            LocalDateTime next = occurrence;
+            for (int i = 0; i < MAX_SKIPS; i++) {
+                next = spec.nextOccurrenceAfter(next);
+                if (blockedUntil(next) == null) {
+                    return next;
+                }
+            }
+        }
+        return until;
+    }
+
+    private static int minuteOfWeek(DayOfWeek day, LocalTime time) {
+        return (day.getValue() - 1) * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * Collects entries and merges them. Parsing a calendar is linear in its size; lookups afterwards do not depend on
+     * how many entries were imported beyond the O(log n) tree search.
+     */
+    public static final class Builder {
+        private final List<LocalDateTime[]> dateWindows = new ArrayList<>();
+        private final List<int[]> weeklyWindows = new ArrayList<>();
+
+        /**
+         * @throws IllegalArgumentException with a message naming the problem
+         */
+        public void add(String entry) {
+            String text = entry;
+            int comment = text.indexOf('#');
+            if (comment >= 0) {
+                text = text.substring(0, comment);
+            }
+            text = text.trim();
+            if (text.isEmpty()) {
+                return;
+            }
+            String[] parts = TO.split(text);
+            if (parts.length > 2) {
+                throw new IllegalArgumentException("more than one \"to\" in: " + entry);
+            }
+            String[] from = parts[0].trim().split("\\s+");
+            String[] to = parts.length == 2 ? parts[1].trim().split("\\s+") : null;
+            if (DATE.matcher(from[0]).matches()) {
+                addDates(from, to, entry);
+            } else {
+                addWeekly(from, to, entry);
+            }
+        }
+
+        /** Add calendar file lines; returns one message per invalid line. */
+        public List<String> addLines(List<String> lines) {
+            List<String> errors = new ArrayList<>();
+            for (int i = 0; i < lines.size(); i++) {
+                try {
+                    add(lines.get(i));
+                } catch (IllegalArgumentException e) {
+                    errors.add("line " + (i + 1) + ": " + e.getMessage());
+                }
+            }
+            return errors;
+        }
+
+        public int size() {
+            return dateWindows.size() + weeklyWindows.size();
+        }
+
+        private void addDates(String[] from, String[] to, String entry) {
+            LocalDate startDate = parseDate(from[0], entry);
+            LocalTime startTime = from.length > 1 ? parseTime(from[1], entry) : LocalTime.MIDNIGHT;
+            LocalDateTime start = LocalDateTime.of(startDate, startTime);
+            LocalDateTime end;
+            if (to == null) {
+                if (from.length > 1) {
+                    throw new IllegalArgumentException("a window with a start time needs \"to <end>\": " + entry);
+                }
+                end = start.plusDays(1);
+            } else if (DATE.matcher(to[0]).matches()) {
+                LocalDate endDate = parseDate(to[0], entry);
+                // A date without a time includes that whole day
+                end = to.length > 1 ? LocalDateTime.of(endDate, parseTime(to[1], entry)) : endDate.plusDays(1).atStartOfDay();
+            } else {
+                end = LocalDateTime.of(startDate, parseTime(to[0], entry));
+                if (!end.isAfter(start)) {
+                    end = end.plusDays(1);
+                }
+            }
+            if (!end.isAfter(start)) {
+                throw new IllegalArgumentException("window ends before it starts: " + entry);
+            }
+            dateWindows.add(new LocalDateTime[]{start, end});
+        }
+
+        private void addWeekly(String[] from, String[] to, String entry) {
+            if (from.length != 2 || to == null || to.length > 2) {
+                throw new IllegalArgumentException("expected \"DAY HH:mm to [DAY] HH:mm\" or a date: " + entry);
+            }
+            DayOfWeek startDay = parseDay(from[0], entry);
+            DayOfWeek endDay = to.length == 2 ? parseDay(to[0], entry) : startDay;
+            int start = minuteOfWeek(startDay, parseTime(from[1], entry));
+            int end = minuteOfWeek(endDay, parseTime(to[to.length - 1], entry));
+            if (end == start) {
+                throw new IllegalArgumentException("window would block the whole week: " + entry);
+            }
+            if (end > start) {
+                weeklyWindows.add(new int[]{start, end});
+            } else {
+                // Runs past Sunday midnight (or past midnight on the same day name)
+                weeklyWindows.add(new int[]{start, MINUTES_PER_WEEK});
+                weeklyWindows.add(new int[]{0, end});
+            }
+        }
+
+        public BlackoutCalendar build(Mode mode, Logger log) {
+            TreeMap<LocalDateTime, LocalDateTime> dates = new TreeMap<>();
+            dateWindows.sort(Comparator.comparing(w -> w[0]));
+            for (LocalDateTime[] w : dateWindows) {
+                Map.Entry<LocalDateTime, LocalDateTime> last = dates.lastEntry();
+                if (last != null && !w[0].isAfter(last.getValue())) {
+                    if (w[1].isAfter(last.getValue())) {
+                        dates.put(last.getKey(), w[1]);
+                    }
+                } else {
+                    dates.put(w[0], w[1]);
+                }
+            }
+            TreeMap<Integer, Integer> weekly = new TreeMap<>();
+            weeklyWindows.sort(Comparator.comparingInt(w -> w[0]));
+            for (int[] w : weeklyWindows) {
+                Map.Entry<Integer, Integer> last = weekly.lastEntry();
+                if (last != null && w[0] <= last.getValue()) {
+                    weekly.put(last.getKey(), Math.max(last.getValue(), w[1]));
+                } else {
+                    weekly.put(w[0], w[1]);
+                }
+            }
+            if (weekly.size() == 1 && weekly.firstKey() == 0 && weekly.firstEntry().getValue() == MINUTES_PER_WEEK) {
+                log.warning("Weekly blackout windows cover the whole week; ignoring them.");
+                weekly.clear();
+            }
+            return new BlackoutCalendar(dates, weekly, mode);
+        }
+
+        private static LocalDate parseDate(String s, String entry) {
+            try {
+                return LocalDate.parse(s);
+            } catch (DateTimeException e) {
+                throw new IllegalArgumentException("invalid date " + s + " (use YYYY-MM-DD): " + entry);
+            }
+        }
+
+        private static LocalTime parseTime(String s, String entry) {
+            try {
+                return LocalTime.parse(s.length() == 4 && s.charAt(1) == ':' ? "0" + s : s);
+            } catch (DateTimeException e) {
+                throw new IllegalArgumentException("invalid time " + s + " (use HH:mm): " + entry);
+            }
+        }
+
+        private static DayOfWeek parseDay(String s, String entry) {
+            String u = s.toUpperCase(Locale.ROOT);
+            if (u.length() >= 3) {
+                for (DayOfWeek day : DayOfWeek.values()) {
+                    if (day.name().startsWith(u)) {
+                        return day;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("unknown day " + s + " (use MON ... SUN): " + entry);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.restartannouncer.schedule;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Standard 5-field cron expression (minute hour day-of-month month day-of-week), compiled into one bitset per field.
+ * Fields accept {@code *}, {@code ?}, lists, ranges, steps ({@code 0-30/10}, {@code *}{@code /15}) and month/day names.
+ * As in cron, when both day-of-month and day-of-week are restricted a day matching either one matches.
+ * The next match is found field by field with bit scans, so it never steps through individual minutes.
+ */
+public final class CronExpression {
+
+    private static final String[] MONTH_NAMES = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final String[] DAY_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+    /** Longest run of years without a match for a valid expression (Feb 29 on a given weekday recurs within 28 years). */
+    private static final int MAX_YEARS = 28;
+
+    private final String text;
+    /** Bit n = minute n (0-59). */
+    private final long minutes;
+    /** Bit n = hour n (0-23). */
+    private final long hours;
+    /** Bit n = day n of the month (1-31). */
+    private final long daysOfMonth;
+    /** Bit n = month n (1-12). */
+    private final long months;
+    /** Bit n = day n of the week, 0 = Sunday (0-6). */
+    private final long daysOfWeek;
+    private final boolean domRestricted;
+    private final boolean dowRestricted;
+
+    private CronExpression(String text, long minutes, long hours, long daysOfMonth, long months, long daysOfWeek,
+                           boolean domRestricted, boolean dowRestricted) {
+        this.text = text;
+        this.minutes = minutes;
+        this.hours = hours;
+        this.daysOfMonth = daysOfMonth;
+        this.months = months;
+        this.daysOfWeek = daysOfWeek;
+        this.domRestricted = domRestricted;
+        this.dowRestricted = dowRestricted;
+    }
+
+    /**
+     * @throws IllegalArgumentException with a message fit for the log when the expression is malformed or never matches
+     */
+    public static CronExpression parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("cron expression is empty");
+        }
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("cron expression needs 5 fields (minute hour day-of-month month day-of-week), got " + fields.length);
+        }
+        long minutes = parseField(fields[0], 0, 59, null, "minute");
+        long hours = parseField(fields[1], 0, 23, null, "hour");
+        long dom = parseField(fields[2], 1, 31, null, "day-of-month");
+        long months = parseField(fields[3], 1, 12, MONTH_NAMES, "month");
+        long dow = parseField(fields[4], 0, 7, DAY_NAMES, "day-of-week");
+        // 7 is Sunday too
+        if ((dow & (1L << 7)) != 0) {
+            dow = (dow & ~(1L << 7)) | 1L;
+        }
+        CronExpression cron = new CronExpression(expression.trim(), minutes, hours, dom, months, dow,
+                !isWildcard(fields[2]), !isWildcard(fields[4]));
+        if (cron.nextAfter(LocalDateTime.now()) == null) {
+            throw new IllegalArgumentException("cron expression never matches: " + expression);
+        }
+        return cron;
+    }
+
+    private static boolean isWildcard(String field) {
+        return field.equals("*") || field.equals("?");
+    }
+
+    private static long parseField(String field, int min, int max, String[] names, String label) {
+        long bits = 0;
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), null, 0, label);
+                if (step < 1) {
+                    throw new IllegalArgumentException("cron " + label + " step must be at least 1: " + part);
+                }
+                part = part.substring(0, slash);
+            }
+            int from;
+            int to;
+            if (isWildcard(part)) {
+                from = min;
+                to = max;
+            } else {
+                int dash = part.indexOf('-');
+                if (dash > 0) {
+                    from = parseNumber(part.substring(0, dash), names, min, label);
+                    to = parseNumber(part.substring(dash + 1), names, min, label);
+                } else {
+                    from = parseNumber(part, names, min, label);
+                    // "5/15" means from 5 to the end in steps of 15
+                    to = slash >= 0 ? max : from;
+                }
+            }
+            if (from < min || to > max || from > to) {
+                throw new IllegalArgumentException("cron " + label + " out of range " + min + "-" + max + ": " + part);
+            }
+            for (int i = from; i <= to; i += step) {
+                bits |= 1L << i;
+            }
+        }
+        return bits;
+    }
+
+    private static int parseNumber(String s, String[] names, int offset, String label) {
+        if (names != null) {
+            String u = s.toUpperCase(Locale.ROOT);
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(u)) {
+                    return i + offset;
+                }
+            }
+        }
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("cron " + label + " is not a number: " + s);
+        }
+    }
+
+    /** Lowest set bit at or above {@code from}, or -1. {@code from} is at most 63. */
+    private static int nextBit(long bits, int from) {
+        long masked = bits & (-1L << from);
+        return masked == 0 ? -1 : Long.numberOfTrailingZeros(masked);
+    }
+
+    /**
+     * First matching minute strictly after {@code now}, or null if there is none within {@value #MAX_YEARS} years.
+     */
+    public LocalDateTime nextAfter(LocalDateTime now) {
+        LocalDateTime t = now.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        int year = t.getYear();
+        int month = t.getMonthValue();
+        int day = t.getDayOfMonth();
+        int hour = t.getHour();
+        int minute = t.getMinute();
+        int lastYear = year + MAX_YEARS;
+        while (year <= lastYear) {
+            int m = nextBit(months, month);
+            if (m < 0) {
+                year++;
+                month = 1;
+                day = 1;
+                hour = 0;
+                minute = 0;
+                continue;
+            }
+            if (m != month) {
+                month = m;
+                day = 1;
+                hour = 0;
+                minute = 0;
+            }
+            int d = nextBit(dayMask(year, month), day);
+            if (d < 0) {
+                month++;
+                day = 1;
+                hour = 0;
+                minute = 0;
+                if (month > 12) {
+                    year++;
+                    month = 1;
+                }
+                continue;
+            }
+            if (d != day) {
+                day = d;
+                hour = 0;
+                minute = 0;
+            }
+            int h = nextBit(hours, hour);
+            if (h < 0) {
+                // Next day; the day mask ends at the month length, so day 32 falls through to the next month
+                day++;
+                hour = 0;
+                minute = 0;
+                continue;
+            }
+            if (h != hour) {
+                hour = h;
+                minute = 0;
+            }
+            int min = nextBit(minutes, minute);
+            if (min < 0) {
+                hour++;
+                minute = 0;
+                if (hour > 23) {
+                    day++;
+                    hour = 0;
+                }
+                continue;
+            }
+            return LocalDateTime.of(year, month, day, hour, min);
+        }
+        return null;
+    }
+
+    /**
+     * Days of {@code month} that match the day fields, as bits 1-31. The weekday bits are rotated so bit 0 is the
+     * 1st of the month and repeated over five weeks.
+     */
+    private long dayMask(int year, int month) {
+        LocalDate first = LocalDate.of(year, month, 1);
+        long inMonth = ((1L << first.lengthOfMonth()) - 1) << 1;
+        int firstDow = first.getDayOfWeek().getValue() % 7;
+        long week = ((daysOfWeek >>> firstDow) | (daysOfWeek << (7 - firstDow))) & 0x7F;
+        long byWeekday = (week | week << 7 | week << 14 | week << 21 | week << 28) << 1;
+        long mask;
+        if (domRestricted && dowRestricted) {
+            mask = daysOfMonth | byWeekday;
+        } else if (domRestricted) {
+            mask = daysOfMonth;
+        } else if (dowRestricted) {
+            mask = byWeekday;
+        } else {
+            mask = inMonth;
+        }
+        return mask & inMonth;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
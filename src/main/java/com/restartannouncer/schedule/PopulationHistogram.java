@@ -0,0 +1,115 @@
+package com.restartannouncer.schedule;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Online player count per 5-minute slot of the week, kept as an exponential moving average.
+ * One float per slot (2016 slots, ~8KB); recording a sample is O(1). Persisted as a small binary file.
+ */
+public final class PopulationHistogram {
+
+    public static final int SLOT_MINUTES = 5;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    public static final int SLOTS = 7 * SLOTS_PER_DAY;
+
+    private static final int FILE_MAGIC = 0x52415048; // "RAPH"
+    private static final int FILE_VERSION = 1;
+    /** Marks a slot with no samples yet. */
+    private static final float UNKNOWN = -1f;
+
+    private final float[] average = new float[SLOTS];
+    private volatile float smoothing;
+
+    public PopulationHistogram(float smoothing) {
+        Arrays.fill(average, UNKNOWN);
+        setSmoothing(smoothing);
+    }
+
+    /** Weight of the newest sample (0..1]; higher adapts faster. */
+    public void setSmoothing(float smoothing) {
+        this.smoothing = Math.max(0.01f, Math.min(1f, smoothing));
+    }
+
+    public static int slotOf(LocalDateTime time) {
+        return (time.getDayOfWeek().getValue() - 1) * SLOTS_PER_DAY
+                + time.getHour() * (60 / SLOT_MINUTES)
+                + time.getMinute() / SLOT_MINUTES;
+    }
+
+    public synchronized void record(LocalDateTime time, int onlineCount) {
+        int slot = slotOf(time);
+        float current = average[slot];
+        average[slot] = current < 0 ? onlineCount : current + smoothing * (onlineCount - current);
+    }
+
+    /** Average online count for the slot containing {@code time}, or a negative value if never sampled. */
+    public synchronized float averageAt(LocalDateTime time) {
+        return average[slotOf(time)];
+    }
+
+    /**
+     * Start of the quietest sampled 5-minute slot in [{@code from}, {@code to}); ties go to the earliest slot.
+     * Returns null when no slot in the range has been sampled yet.
+     */
+    public synchronized LocalDateTime quietestSlot(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime cursor = from.withSecond(0).withNano(0);
+        cursor = cursor.minusMinutes(cursor.getMinute() % SLOT_MINUTES);
+        LocalDateTime best = null;
+        float bestValue = Float.MAX_VALUE;
+        while (cursor.isBefore(to)) {
+            float value = average[slotOf(cursor)];
+            if (value >= 0 && value < bestValue && !cursor.isBefore(from)) {
+                bestValue = value;
+                best = cursor;
+            }
+            cursor = cursor.plusMinutes(SLOT_MINUTES);
+        }
+        return best;
+    }
+
+    public synchronized float[] snapshot() {
+        return average.clone();
+    }
+
+    /**
+     * Load averages from {@code file}. Missing or unreadable files leave the histogram empty.
+     */
+    public synchronized void load(File file) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION || in.readInt() != SLOTS) {
+                throw new IOException("unrecognized population history format");
+            }
+            for (int i = 0; i < SLOTS; i++) {
+                average[i] = in.readFloat();
+            }
+        }
+    }
+
+    /**
+     * Write a snapshot (from {@link #snapshot()}) to {@code file} via a temp file and rename. Safe off the main thread.
+     */
+    public static void save(float[] snapshot, File file) throws IOException {
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp.toPath())))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(SLOTS);
+            for (float v : snapshot) {
+                out.writeFloat(v);
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,95 @@
+package com.restartannouncer.schedule;
+
+import com.restartannouncer.managers.RestartManager;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * One entry under scheduled-restart.reminders: how long before each scheduled restart it is sent, where, and with
+ * which text. Reminders are turned into a sorted timeline whenever the next restart is known.
+ */
+public final class ReminderSpec {
+
+    public enum Channel {
+        CHAT,
+        ACTIONBAR,
+        TITLE
+    }
+
+    private final String name;
+    private final int offsetSeconds;
+    private final Channel channel;
+    /** MiniMessage text with %time%, %timezone% and %remaining%; null to use scheduled-restart.reminder from messages.yml. */
+    private final String message;
+
+    private ReminderSpec(String name, int offsetSeconds, Channel channel, String message) {
+        this.name = name;
+        this.offsetSeconds = offsetSeconds;
+        this.channel = channel;
+        this.message = message;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Seconds before the restart. */
+    public int getOffsetSeconds() {
+        return offsetSeconds;
+    }
+
+    public Channel getChannel() {
+        return channel;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Reminders from scheduled-restart.reminders, longest offset first. Invalid entries are logged and skipped.
+     */
+    public static List<ReminderSpec> fromConfig(FileConfiguration config, Logger log) {
+        List<ReminderSpec> reminders = new ArrayList<>();
+        ConfigurationSection section = config.getConfigurationSection("scheduled-restart.reminders");
+        if (section == null) {
+            return reminders;
+        }
+        for (String name : section.getKeys(false)) {
+            String path = "scheduled-restart.reminders." + name;
+            ConfigurationSection entry = section.getConfigurationSection(name);
+            if (entry == null) {
+                log.warning(path + " must be a section with before, channel and optionally message.");
+                continue;
+            }
+            int offset;
+            try {
+                offset = RestartManager.parseTime(entry.getString("before", ""));
+            } catch (NumberFormatException e) {
+                log.warning(path + ".before must be a duration such as 6h, 30m or 90s.");
+                continue;
+            }
+            if (offset <= 0) {
+                log.warning(path + ".before must be greater than zero.");
+                continue;
+            }
+            Channel channel;
+            try {
+                channel = Channel.valueOf(entry.getString("channel", "chat").trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                log.warning(path + ".channel must be chat, actionbar or title.");
+                continue;
+            }
+            String message = entry.getString("message");
+            reminders.add(new ReminderSpec(name, offset, channel, message == null || message.isBlank() ? null : message));
+        }
+        reminders.sort(Comparator.comparingInt(ReminderSpec::getOffsetSeconds).reversed());
+        return List.copyOf(reminders);
+    }
+}
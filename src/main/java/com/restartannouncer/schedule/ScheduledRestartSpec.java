@@ -1,7 +1,10 @@
 package com.restartannouncer.schedule;
 
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
+import java.nio.charset.StandardCharsets;
 import java.time.DateTimeException;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
@@ -9,22 +12,74 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 /**
- * Parsed scheduled-restart configuration: when the next restart instant should occur.
+ * One parsed schedule from scheduled-restart: when its next restart instant should occur, and how its countdown looks.
  */
 public final class ScheduledRestartSpec {
 
     public enum Recurrence {
         DAILY,
-        WEEKLY
+        WEEKLY,
+        /** Every day, at the historically quietest 5-minute slot between auto-earliest and auto-latest. */
+        AUTO,
+        /** Whenever the 5-field cron expression in {@code cron} matches. */
+        CRON
+    }
+
+    /**
+     * Optional window before the restart time in which the restart may happen early, at the first moment
+     * the online count drops below {@link #maxPlayers}. The restart is still forced at the scheduled time.
+     */
+    public static final class FlexibleWindow {
+        private final int minutes;
+        private final int maxPlayers;
+        private final int countdownSeconds;
+
+        FlexibleWindow(int minutes, int maxPlayers, int countdownSeconds) {
+            this.minutes = minutes;
+            this.maxPlayers = maxPlayers;
+            this.countdownSeconds = countdownSeconds;
+        }
+
+        /** Start of the window that ends at {@code restartAt}. */
+        public LocalDateTime windowStart(LocalDateTime restartAt) {
+            return restartAt.minusMinutes(minutes);
+        }
+
+        /** A restart may start early while fewer than this many players are online. */
+        public int getMaxPlayers() {
+            return maxPlayers;
+        }
+
+        /** Countdown length for an early (quiet) restart. */
+        public int getCountdownSeconds() {
+            return countdownSeconds;
+        }
+    }
+
+    /** Countdown before each occurrence: its length and how it is shown. */
+    private static final class Display {
+        private final int countdownSeconds;
+        private final String type;
+
+        Display(int countdownSeconds, String type) {
+            this.countdownSeconds = countdownSeconds;
+            this.type = type;
+        }
     }
 
     private static final DateTimeFormatter USER_TIME = DateTimeFormatter.ofPattern("HH:mm", Locale.getDefault());
     private static final DateTimeFormatter USER_DATE_TIME = DateTimeFormatter.ofPattern("EEE, MMM d 'at' HH:mm", Locale.getDefault());
 
+    /** Key under scheduled-restart.schedules, or "default" for the single-schedule form. */
+    private final String name;
+    private final Display display;
     private final Recurrence recurrence;
     private final LocalTime time;
     /** Used when recurrence is {@link Recurrence#WEEKLY}. */
@@ -33,83 +88,294 @@ public final class ScheduledRestartSpec {
     private final int intervalWeeks;
     /** Required when {@link #intervalWeeks} &gt; 1; must fall on {@link #dayOfWeek}. */
     private final LocalDate weekAnchor;
+    /** Null when scheduled-restart.flexible-window is disabled. */
+    private final FlexibleWindow flexibleWindow;
+    /** Allowed hours for {@link Recurrence#AUTO}; the window may cross midnight. */
+    private final LocalTime autoEarliest;
+    private final LocalTime autoLatest;
+    /** Compiled {@code cron} for {@link Recurrence#CRON}. */
+    private final CronExpression cron;
+    /** Population history used by {@link Recurrence#AUTO}; looked up per use since the spec outlives a history restart. */
+    private final Supplier<PopulationHistogram> histogram;
+    /** This server's fixed offset from each base occurrence (scheduled-restart.jitter), in seconds. */
+    private final int jitterSeconds;
 
-    private ScheduledRestartSpec(Recurrence recurrence, LocalTime time, DayOfWeek dayOfWeek,
-                                 int intervalWeeks, LocalDate weekAnchor) {
+    private ScheduledRestartSpec(String name, Display display, Recurrence recurrence, LocalTime time, DayOfWeek dayOfWeek,
+                                 int intervalWeeks, LocalDate weekAnchor, FlexibleWindow flexibleWindow,
+                                 LocalTime autoEarliest, LocalTime autoLatest, Supplier<PopulationHistogram> histogram,
+                                 CronExpression cron, int jitterSeconds) {
+        this.name = name;
+        this.display = display;
         this.recurrence = recurrence;
         this.time = time;
         this.dayOfWeek = dayOfWeek;
         this.intervalWeeks = intervalWeeks;
         this.weekAnchor = weekAnchor;
+        this.flexibleWindow = flexibleWindow;
+        this.autoEarliest = autoEarliest;
+        this.autoLatest = autoLatest;
+        this.histogram = histogram;
+        this.cron = cron;
+        this.jitterSeconds = jitterSeconds;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Length of the countdown that ends at each occurrence. */
+    public int getCountdownSeconds() {
+        return display.countdownSeconds;
+    }
+
+    /** chat, bossbar or title. */
+    public String getDisplayType() {
+        return display.type;
     }
 
     public Recurrence getRecurrence() {
         return recurrence;
     }
 
+    /** Flexible window ending at each occurrence, or null when not configured. */
+    public FlexibleWindow getFlexibleWindow() {
+        return flexibleWindow;
+    }
+
+    /** Seconds this server's restarts are shifted past each base occurrence; 0 without jitter. */
+    public int getJitterSeconds() {
+        return jitterSeconds;
+    }
+
     /**
-     * Next restart instant strictly after {@code now} (same rules as "when does countdown start").
+     * Next restart instant strictly after {@code now} (same rules as "when does countdown start"), including this
+     * server's jitter. Shifting the base series by a constant keeps it ordered, so the base occurrence after
+     * {@code now - jitter} is the one whose shifted instant is the first after {@code now}.
      */
     public LocalDateTime nextOccurrenceAfter(LocalDateTime now) {
+        if (jitterSeconds == 0) {
+            return nextBaseAfter(now);
+        }
+        LocalDateTime base = nextBaseAfter(now.minusSeconds(jitterSeconds));
+        return base != null ? base.plusSeconds(jitterSeconds) : null;
+    }
+
+    private LocalDateTime nextBaseAfter(LocalDateTime now) {
         return switch (recurrence) {
             case DAILY -> nextDaily(now);
             case WEEKLY -> intervalWeeks <= 1 ? nextWeeklyEveryWeek(now) : nextWeeklyAnchored(now);
+            case AUTO -> nextAuto(now);
+            case CRON -> cron.nextAfter(now);
         };
     }
 
     public String formatReminderTime(LocalDateTime next) {
-        if (recurrence == Recurrence.DAILY) {
-            return USER_TIME.format(time);
+        if (recurrence == Recurrence.DAILY && next.toLocalTime().equals(time.plusSeconds(jitterSeconds))) {
+            return USER_TIME.format(next);
+        }
+        if ((recurrence == Recurrence.AUTO || recurrence == Recurrence.CRON) && !next.toLocalDate().isAfter(LocalDate.now().plusDays(1))) {
+            return USER_TIME.format(next);
         }
         return USER_DATE_TIME.format(next);
     }
 
-    public static ScheduledRestartSpec fromConfig(FileConfiguration config, Logger log) {
-        LocalTime time = parseTime(config, log);
+    /**
+     * All configured schedules: one per entry under scheduled-restart.schedules, or the single schedule described
+     * directly under scheduled-restart when there are none. Null when any of them is invalid (already logged).
+     *
+     * @param histogram population history for {@link Recurrence#AUTO}; AUTO is rejected when population-history is disabled
+     */
+    public static List<ScheduledRestartSpec> fromConfig(FileConfiguration config, Logger log, Supplier<PopulationHistogram> histogram) {
+        boolean historyEnabled = config.getBoolean("population-history.enabled", false);
+        int jitter = jitterSeconds(config, log);
+        if (jitter < 0) {
+            return null;
+        }
+        ConfigurationSection schedules = config.getConfigurationSection("scheduled-restart.schedules");
+        if (schedules == null || schedules.getKeys(false).isEmpty()) {
+            ConfigurationSection single = config.getConfigurationSection("scheduled-restart");
+            if (single == null) {
+                log.warning("scheduled-restart section is missing.");
+                return null;
+            }
+            ScheduledRestartSpec spec = fromSection(single, "scheduled-restart", "default", historyEnabled, jitter, log, histogram);
+            return spec != null ? List.of(spec) : null;
+        }
+        List<ScheduledRestartSpec> specs = new ArrayList<>();
+        for (String name : schedules.getKeys(false)) {
+            ConfigurationSection section = schedules.getConfigurationSection(name);
+            String path = "scheduled-restart.schedules." + name;
+            if (section == null) {
+                log.warning(path + " must be a section (time, recurrence, ...).");
+                return null;
+            }
+            ScheduledRestartSpec spec = fromSection(section, path, name, historyEnabled, jitter, log, histogram);
+            if (spec == null) {
+                return null;
+            }
+            specs.add(spec);
+        }
+        return List.copyOf(specs);
+    }
+
+    /**
+     * One schedule from {@code section}; {@code path} is its full path, used in warnings.
+     */
+    private static ScheduledRestartSpec fromSection(ConfigurationSection section, String path, String name, boolean historyEnabled,
+                                                    int jitter, Logger log, Supplier<PopulationHistogram> histogram) {
+        LocalTime time = parseHhMm(section, path, "time", LocalTime.of(4, 0), log);
         if (time == null) {
             return null;
         }
 
-        Recurrence recurrence = parseRecurrence(config.getString("scheduled-restart.recurrence", "DAILY"), log);
+        Recurrence recurrence = parseRecurrence(section.getString("recurrence", "DAILY"), path, log);
         if (recurrence == null) {
             return null;
         }
 
+        FlexibleWindow flexibleWindow = null;
+        if (section.getBoolean("flexible-window.enabled", false)) {
+            flexibleWindow = parseFlexibleWindow(section, path, time, log);
+            if (flexibleWindow == null) {
+                return null;
+            }
+        }
+
+        Display display = parseDisplay(section, path, log);
+        if (display == null) {
+            return null;
+        }
+
         if (recurrence == Recurrence.DAILY) {
-            return new ScheduledRestartSpec(Recurrence.DAILY, time, null, 1, null);
+            return new ScheduledRestartSpec(name, display, Recurrence.DAILY, time, null, 1, null, flexibleWindow, null, null, null, null, jitter);
         }
 
-        DayOfWeek dow = parseDayOfWeek(config.getString("scheduled-restart.day-of-week"), log);
+        if (recurrence == Recurrence.AUTO) {
+            if (!historyEnabled) {
+                log.warning(path + ".recurrence AUTO requires population-history.enabled: true.");
+                return null;
+            }
+            LocalTime earliest = parseHhMm(section, path, "auto-earliest", LocalTime.of(2, 0), log);
+            LocalTime latest = parseHhMm(section, path, "auto-latest", LocalTime.of(8, 0), log);
+            if (earliest == null || latest == null) {
+                return null;
+            }
+            if (earliest.equals(latest)) {
+                log.warning(path + ".auto-earliest and auto-latest must differ.");
+                return null;
+            }
+            return new ScheduledRestartSpec(name, display, Recurrence.AUTO, time, null, 1, null, flexibleWindow, earliest, latest, histogram, null, jitter);
+        }
+
+        if (recurrence == Recurrence.CRON) {
+            if (flexibleWindow != null) {
+                log.warning(path + ".flexible-window is not supported with recurrence CRON (the window ends at time).");
+                return null;
+            }
+            CronExpression cron;
+            try {
+                cron = CronExpression.parse(section.getString("cron"));
+            } catch (IllegalArgumentException e) {
+                log.warning(path + ".cron: " + e.getMessage());
+                return null;
+            }
+            return new ScheduledRestartSpec(name, display, Recurrence.CRON, time, null, 1, null, null, null, null, null, cron, jitter);
+        }
+
+        DayOfWeek dow = parseDayOfWeek(section.getString("day-of-week"), log);
         if (dow == null) {
-            log.warning("scheduled-restart.day-of-week is required when recurrence is WEEKLY (e.g. SUNDAY, MON).");
+            log.warning(path + ".day-of-week is required when recurrence is WEEKLY (e.g. SUNDAY, MON).");
             return null;
         }
-        int intervalWeeks = Math.max(1, config.getInt("scheduled-restart.interval-weeks", 1));
+        int intervalWeeks = Math.max(1, section.getInt("interval-weeks", 1));
         LocalDate anchor = null;
         if (intervalWeeks > 1) {
-            String anchorStr = config.getString("scheduled-restart.week-anchor-date");
+            String anchorStr = section.getString("week-anchor-date");
             if (anchorStr == null || anchorStr.isBlank()) {
-                log.warning("scheduled-restart.week-anchor-date is required when interval-weeks is greater than 1 (YYYY-MM-DD, must match day-of-week).");
+                log.warning(path + ".week-anchor-date is required when interval-weeks is greater than 1 (YYYY-MM-DD, must match day-of-week).");
                 return null;
             }
             try {
                 anchor = LocalDate.parse(anchorStr.trim());
             } catch (DateTimeException e) {
-                log.warning("scheduled-restart.week-anchor-date must be YYYY-MM-DD, got: " + anchorStr);
+                log.warning(path + ".week-anchor-date must be YYYY-MM-DD, got: " + anchorStr);
                 return null;
             }
             if (!anchor.getDayOfWeek().equals(dow)) {
-                log.warning("scheduled-restart.week-anchor-date (" + anchor + ") must be a " + dow + " to match day-of-week.");
+                log.warning(path + ".week-anchor-date (" + anchor + ") must be a " + dow + " to match day-of-week.");
                 return null;
             }
         }
-        return new ScheduledRestartSpec(Recurrence.WEEKLY, time, dow, intervalWeeks, anchor);
+        return new ScheduledRestartSpec(name, display, Recurrence.WEEKLY, time, dow, intervalWeeks, anchor, flexibleWindow, null, null, null, null, jitter);
     }
 
-    private static LocalTime parseTime(FileConfiguration config, Logger log) {
-        Object v = config.get("scheduled-restart.time");
+    /**
+     * This server's offset from scheduled-restart.jitter: a stable FNV-1a hash of {@code server-id} (the server port
+     * when blank) reduced into [0, window-minutes). Every server sharing the config gets its own fixed slot in the
+     * window without any coordination. 0 when the window is 0; -1 when the setting is invalid (already logged).
+     */
+    static int jitterSeconds(FileConfiguration config, Logger log) {
+        int windowMinutes = config.getInt("scheduled-restart.jitter.window-minutes", 0);
+        if (windowMinutes == 0) {
+            return 0;
+        }
+        if (windowMinutes < 0 || windowMinutes > 24 * 60) {
+            log.warning("scheduled-restart.jitter.window-minutes must be between 0 and 1440.");
+            return -1;
+        }
+        String key = config.getString("scheduled-restart.jitter.server-id", "");
+        if (key == null || key.isBlank()) {
+            key = "port:" + Bukkit.getPort();
+        }
+        return (int) Long.remainderUnsigned(fnv1a64(key.trim()), windowMinutes * 60L);
+    }
+
+    private static long fnv1a64(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static Display parseDisplay(ConfigurationSection section, String path, Logger log) {
+        int countdownMinutes = section.getInt("countdown-minutes", 60);
+        if (countdownMinutes < 1) {
+            log.warning(path + ".countdown-minutes must be at least 1.");
+            return null;
+        }
+        String type = section.getString("display", "chat").trim().toLowerCase(Locale.ROOT);
+        if (!type.equals("chat") && !type.equals("bossbar") && !type.equals("title")) {
+            log.warning(path + ".display must be chat, bossbar or title, got: " + type);
+            return null;
+        }
+        return new Display(countdownMinutes * 60, type);
+    }
+
+    private static FlexibleWindow parseFlexibleWindow(ConfigurationSection section, String path, LocalTime restartTime, Logger log) {
+        LocalTime earliest = parseHhMm(section, path, "flexible-window.earliest", null, log);
+        if (earliest == null) {
+            log.warning(path + ".flexible-window.earliest is required when the flexible window is enabled (4-digit 24hr HHmm).");
+            return null;
+        }
+        // Window runs from earliest up to the restart time, possibly across midnight
+        int minutes = Math.floorMod(restartTime.getHour() * 60 + restartTime.getMinute()
+                - earliest.getHour() * 60 - earliest.getMinute(), 24 * 60);
+        if (minutes == 0) {
+            log.warning(path + ".flexible-window.earliest must differ from " + path + ".time.");
+            return null;
+        }
+        int maxPlayers = Math.max(1, section.getInt("flexible-window.max-players", 3));
+        int countdownSeconds = Math.max(1, section.getInt("flexible-window.countdown-seconds", 300));
+        return new FlexibleWindow(minutes, maxPlayers, countdownSeconds);
+    }
+
+    private static LocalTime parseHhMm(ConfigurationSection section, String sectionPath, String key, LocalTime fallback, Logger log) {
+        Object v = section.get(key);
+        String path = sectionPath + "." + key;
         if (v == null) {
-            return LocalTime.of(4, 0);
+            return fallback;
         }
         String s;
         if (v instanceof Number) {
@@ -118,41 +384,41 @@ public final class ScheduledRestartSpec {
             s = v.toString().trim().replace(":", "");
         }
         if (s.isEmpty()) {
-            return LocalTime.of(4, 0);
+            return fallback;
         }
         try {
             int n = Integer.parseInt(s);
             s = String.format("%04d", n);
         } catch (NumberFormatException e) {
-            log.warning("scheduled-restart.time invalid (use 4-digit 24hr HHmm).");
+            log.warning(path + " invalid (use 4-digit 24hr HHmm).");
             return null;
         }
         if (s.length() < 4) {
-            log.warning("scheduled-restart.time invalid (use 4-digit 24hr HHmm).");
+            log.warning(path + " invalid (use 4-digit 24hr HHmm).");
             return null;
         }
         int hour = Integer.parseInt(s.substring(0, 2));
         int minute = Integer.parseInt(s.substring(2, 4));
         if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
-            log.warning("scheduled-restart.time invalid hour/minute.");
+            log.warning(path + " invalid hour/minute.");
             return null;
         }
         return LocalTime.of(hour, minute);
     }
 
-    private static Recurrence parseRecurrence(String raw, Logger log) {
+    private static Recurrence parseRecurrence(String raw, String path, Logger log) {
         if (raw == null || raw.isBlank()) {
             return Recurrence.DAILY;
         }
         String u = raw.trim().toUpperCase(Locale.ROOT);
         if ("MONTHLY".equals(u)) {
-            log.warning("scheduled-restart.recurrence MONTHLY is no longer supported; use DAILY or WEEKLY.");
+            log.warning(path + ".recurrence MONTHLY is no longer supported; use CRON (e.g. cron: \"0 4 1 * *\").");
             return null;
         }
         try {
             return Recurrence.valueOf(u);
         } catch (IllegalArgumentException e) {
-            log.warning("scheduled-restart.recurrence must be DAILY or WEEKLY, got: " + raw);
+            log.warning(path + ".recurrence must be DAILY, WEEKLY, AUTO or CRON, got: " + raw);
             return null;
         }
     }
@@ -188,6 +454,31 @@ public final class ScheduledRestartSpec {
         return next;
     }
 
+    /**
+     * Quietest slot of each day's allowed window (from population history); falls back to the window start
+     * while the window has no samples. A window whose quietest slot has already passed is skipped.
+     */
+    private LocalDateTime nextAuto(LocalDateTime now) {
+        // Start from yesterday: a window that crosses midnight may still be open
+        LocalDate d = now.toLocalDate().minusDays(1);
+        while (true) {
+            LocalDateTime from = LocalDateTime.of(d, autoEarliest);
+            LocalDateTime to = LocalDateTime.of(d, autoLatest);
+            if (!to.isAfter(from)) {
+                to = to.plusDays(1);
+            }
+            PopulationHistogram history = histogram.get();
+            LocalDateTime candidate = history != null ? history.quietestSlot(from, to) : null;
+            if (candidate == null) {
+                candidate = from;
+            }
+            if (candidate.isAfter(now)) {
+                return candidate;
+            }
+            d = d.plusDays(1);
+        }
+    }
+
     private LocalDateTime nextWeeklyEveryWeek(LocalDateTime now) {
         LocalDate d = now.toLocalDate();
         int daysUntil = (dayOfWeek.getValue() - d.getDayOfWeek().getValue() + 7) % 7;
@@ -0,0 +1,63 @@
+package com.restartannouncer.schedule;
+
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Adjusts scheduled restarts by JVM uptime: restart once the server has been up for max-hours,
+ * and skip occurrences that come less than min-hours-since-boot after startup (e.g. after a crash or manual restart).
+ */
+public final class UptimePolicy {
+
+    private final int maxUptimeHours;
+    private final int minHoursSinceBoot;
+    private final LocalDateTime bootTime;
+
+    private UptimePolicy(int maxUptimeHours, int minHoursSinceBoot, LocalDateTime bootTime) {
+        this.maxUptimeHours = maxUptimeHours;
+        this.minHoursSinceBoot = minHoursSinceBoot;
+        this.bootTime = bootTime;
+    }
+
+    public static UptimePolicy fromConfig(FileConfiguration config) {
+        long startMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+        LocalDateTime boot = LocalDateTime.ofInstant(Instant.ofEpochMilli(startMillis), ZoneId.systemDefault());
+        return new UptimePolicy(
+                Math.max(0, config.getInt("scheduled-restart.uptime.max-hours", 0)),
+                Math.max(0, config.getInt("scheduled-restart.uptime.min-hours-since-boot", 0)),
+                boot);
+    }
+
+    public LocalDateTime getBootTime() {
+        return bootTime;
+    }
+
+    /**
+     * Next restart after {@code now}: the scheduled occurrence (skipping any too soon after boot),
+     * or the uptime limit if that comes first. {@code countdownSeconds} is used when the limit has already passed.
+     */
+    public LocalDateTime nextRestart(ScheduledRestartSpec spec, LocalDateTime now, int countdownSeconds) {
+        LocalDateTime next = spec.nextOccurrenceAfter(now);
+        if (minHoursSinceBoot > 0) {
+            LocalDateTime earliest = bootTime.plusHours(minHoursSinceBoot);
+            while (next.isBefore(earliest)) {
+                next = spec.nextOccurrenceAfter(next);
+            }
+        }
+        if (maxUptimeHours > 0) {
+            LocalDateTime limit = bootTime.plusHours(maxUptimeHours);
+            if (!limit.isAfter(now)) {
+                // Already over the limit (e.g. the policy was just enabled): restart after a full countdown
+                limit = now.plusSeconds(countdownSeconds);
+            }
+            if (limit.isBefore(next)) {
+                next = limit;
+            }
+        }
+        return next;
+    }
+}
@@ -8,10 +8,13 @@ import java.util.concurrent.CompletableFuture;
 
 /**
  * Checks if EssentialsX (or similar) backup is running via optional soft dependency.
- * Uses reflection so Essentials is not required at compile time.
+ * Uses reflection so Essentials is not required at compile time. Registered as the built-in "backup" restart gate.
  */
 public class BackupChecker {
 
+    /** Name of the restart gate backed by this checker. */
+    public static final String GATE_NAME = "backup";
+
     private final Plugin plugin;
     private Object essentialsApi;
     private Method getBackupMethod;
@@ -66,23 +69,31 @@ public class BackupChecker {
      * Returns false if Essentials is not present or backup is not running.
      */
     public boolean isBackupRunning() {
+        return getRunningBackup() != null;
+    }
+
+    /**
+     * The running backup's task lock, which completes when the backup finishes; null if Essentials is not present or
+     * no backup is running.
+     */
+    public CompletableFuture<?> getRunningBackup() {
         resolve();
         if (getBackupMethod == null || getTaskLockMethod == null) {
-            return false;
+            return null;
         }
         try {
             Object backup = getBackupMethod.invoke(essentialsApi);
             if (backup == null) {
-                return false;
+                return null;
             }
             Object future = getTaskLockMethod.invoke(backup);
-            if (future instanceof CompletableFuture) {
-                return !((CompletableFuture<?>) future).isDone();
+            if (future instanceof CompletableFuture && !((CompletableFuture<?>) future).isDone()) {
+                return (CompletableFuture<?>) future;
             }
-            return false;
+            return null;
         } catch (Throwable t) {
             plugin.getLogger().fine("BackupChecker: " + t.getMessage());
-            return false;
+            return null;
         }
     }
 }
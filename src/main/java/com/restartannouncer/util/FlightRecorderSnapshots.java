@@ -0,0 +1,110 @@
+package com.restartannouncer.util;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Keeps a low-overhead JDK Flight Recorder ring recording running and dumps it to the data folder
+ * shortly before a restart, so the evidence of a degraded server survives the JVM.
+ * Uses the in-process jdk.jfr API only (no agents, works offline).
+ */
+public class FlightRecorderSnapshots {
+
+    private static final String RECORDING_NAME = "RestartAnnouncer";
+    private static final String DUMP_PREFIX = "restart-";
+    private static final String DUMP_SUFFIX = ".jfr";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+
+    private final Plugin plugin;
+    private final File dumpFolder;
+    private Recording recording;
+
+    public FlightRecorderSnapshots(Plugin plugin) {
+        this.plugin = plugin;
+        this.dumpFolder = new File(plugin.getDataFolder(), "jfr");
+    }
+
+    /**
+     * Start the ring recording using the JDK "default" settings (continuous, ~1% overhead). Safe to call again.
+     */
+    public synchronized void start(int maxAgeMinutes, int maxSizeMb) {
+        if (recording != null) {
+            return;
+        }
+        try {
+            Recording r = new Recording(Configuration.getConfiguration("default"));
+            r.setName(RECORDING_NAME);
+            r.setToDisk(true);
+            r.setMaxAge(Duration.ofMinutes(Math.max(1, maxAgeMinutes)));
+            r.setMaxSize(Math.max(1, maxSizeMb) * 1024L * 1024L);
+            r.start();
+            recording = r;
+            plugin.getLogger().info("Flight Recorder ring recording started (max-age " + maxAgeMinutes + "m, max-size " + maxSizeMb + "MB)");
+        } catch (Throwable t) {
+            plugin.getLogger().warning("Could not start Flight Recorder recording: " + t.getMessage());
+        }
+    }
+
+    public synchronized void stop() {
+        if (recording == null) {
+            return;
+        }
+        try {
+            recording.close();
+        } catch (Throwable ignored) {
+        }
+        recording = null;
+    }
+
+    public synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * Write the current ring buffer to {@code jfr/restart-<time>-<reason>.jfr} and delete the oldest dumps
+     * beyond {@code keepDumps}. Does file I/O; call off the main thread.
+     */
+    public synchronized void dump(String reason, int keepDumps) {
+        if (recording == null) {
+            return;
+        }
+        if (!dumpFolder.exists() && !dumpFolder.mkdirs()) {
+            plugin.getLogger().warning("Could not create " + dumpFolder.getPath() + " for Flight Recorder dumps");
+            return;
+        }
+        String safeReason = reason == null ? "unknown" : reason.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9-]", "-");
+        Path target = new File(dumpFolder, DUMP_PREFIX + FILE_TIME.format(LocalDateTime.now()) + "-" + safeReason + DUMP_SUFFIX).toPath();
+        try {
+            recording.dump(target);
+            plugin.getLogger().info("Flight Recorder snapshot written to " + target);
+        } catch (Throwable t) {
+            plugin.getLogger().warning("Could not write Flight Recorder snapshot: " + t.getMessage());
+            return;
+        }
+        rotate(Math.max(1, keepDumps));
+    }
+
+    private void rotate(int keepDumps) {
+        File[] dumps = dumpFolder.listFiles((dir, name) -> name.startsWith(DUMP_PREFIX) && name.endsWith(DUMP_SUFFIX));
+        if (dumps == null || dumps.length <= keepDumps) {
+            return;
+        }
+        // File names start with a sortable timestamp, so name order is age order
+        Arrays.sort(dumps, Comparator.comparing(File::getName));
+        for (int i = 0; i < dumps.length - keepDumps; i++) {
+            if (!dumps[i].delete()) {
+                plugin.getLogger().warning("Could not delete old Flight Recorder dump " + dumps[i].getName());
+            }
+        }
+    }
+}
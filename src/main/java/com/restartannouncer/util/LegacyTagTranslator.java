@@ -0,0 +1,224 @@
+package com.restartannouncer.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Fallback translator from the basic MiniMessage-style tags ({@code <red>}, {@code <bold>}, {@code <#ff8800>},
+ * {@code </red>}, ...) to legacy section codes. Messages are compiled with MiniMessage; this handles what it cannot:
+ * text that already contains section codes, text MiniMessage rejects, and ad-hoc strings passed to
+ * {@code MessageManager.formatMessage}. One pass with a precompiled trie over tag names and one output builder; unknown
+ * tags are copied through unchanged. Recent results are kept in a small LRU cache. See LegacyTagTranslatorBenchmark
+ * under src/test for its cost against the chained replaces it took over from.
+ */
+public final class LegacyTagTranslator {
+
+    private static final char SECTION = '§';
+    private static final int CACHE_SIZE = 256;
+    /** Longer strings are translated but not cached (player-supplied text, one-off messages). */
+    private static final int MAX_CACHED_LENGTH = 512;
+    /** Alphabet of tag names: a-z and '_'. */
+    private static final int ALPHABET = 27;
+    private static final int MAX_OPEN_TAGS = 16;
+
+    /** Trie over tag names: children[node][letter] -> child node (0 = none); codes[node] = legacy code or 0. */
+    private final int[][] children;
+    private final char[] codes;
+    private final Map<String, String> cache = new LinkedHashMap<>(CACHE_SIZE * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public LegacyTagTranslator() {
+        String[][] tags = {
+            {"red", "c"}, {"dark_red", "4"}, {"blue", "b"}, {"dark_blue", "1"}, {"aqua", "b"}, {"dark_aqua", "3"},
+            {"green", "a"}, {"dark_green", "2"}, {"yellow", "e"}, {"gold", "6"}, {"purple", "d"}, {"light_purple", "d"},
+            {"dark_purple", "5"}, {"white", "f"}, {"gray", "7"}, {"grey", "7"}, {"dark_gray", "8"}, {"dark_grey", "8"},
+            {"black", "0"}, {"bold", "l"}, {"italic", "o"}, {"underline", "n"}, {"underlined", "n"},
+            {"strikethrough", "m"}, {"obfuscated", "k"}, {"reset", "r"}
+        };
+        int nodes = 1;
+        for (String[] tag : tags) {
+            nodes += tag[0].length();
+        }
+        children = new int[nodes][ALPHABET];
+        codes = new char[nodes];
+        int next = 1;
+        for (String[] tag : tags) {
+            int node = 0;
+            for (int i = 0; i < tag[0].length(); i++) {
+                int letter = letterIndex(tag[0].charAt(i));
+                if (children[node][letter] == 0) {
+                    children[node][letter] = next++;
+                }
+                node = children[node][letter];
+            }
+            codes[node] = tag[1].charAt(0);
+        }
+    }
+
+    /**
+     * Translate with the LRU cache. Safe to call from any thread.
+     */
+    public String translate(String message) {
+        if (message == null || message.indexOf('<') < 0) {
+            return message;
+        }
+        if (message.length() > MAX_CACHED_LENGTH) {
+            return translateUncached(message);
+        }
+        synchronized (cache) {
+            String cached = cache.get(message);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        String translated = translateUncached(message);
+        synchronized (cache) {
+            cache.put(message, translated);
+        }
+        return translated;
+    }
+
+    public void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * One pass over {@code message}: tags become section codes, closing tags reset and re-apply the still-open styles.
+     */
+    public String translateUncached(String message) {
+        int length = message.length();
+        StringBuilder out = new StringBuilder(length + 16);
+        // Open styles, as the code (or hex start index into message) that opened them, for closing tags
+        char[] openCodes = new char[MAX_OPEN_TAGS];
+        int[] openHex = new int[MAX_OPEN_TAGS];
+        int open = 0;
+        int i = 0;
+        while (i < length) {
+            char c = message.charAt(i);
+            if (c != '<') {
+                out.append(c);
+                i++;
+                continue;
+            }
+            int end = message.indexOf('>', i + 1);
+            if (end < 0) {
+                out.append(message, i, length);
+                break;
+            }
+            boolean closing = i + 1 < end && message.charAt(i + 1) == '/';
+            int nameStart = closing ? i + 2 : i + 1;
+
+            // Hex color: <#rrggbb> / </#rrggbb>
+            if (end - nameStart == 7 && message.charAt(nameStart) == '#' && isHex(message, nameStart + 1, end)) {
+                if (closing) {
+                    open = close(out, message, openCodes, openHex, open, (char) 0, nameStart);
+                } else {
+                    appendHex(out, message, nameStart + 1);
+                    if (open < MAX_OPEN_TAGS) {
+                        openCodes[open] = 0;
+                        openHex[open++] = nameStart + 1;
+                    }
+                }
+                i = end + 1;
+                continue;
+            }
+
+            char code = lookup(message, nameStart, end);
+            if (code == 0) {
+                // Not a known tag (e.g. "<time>" in usage text) - copy through
+                out.append('<');
+                i++;
+                continue;
+            }
+            if (closing) {
+                open = close(out, message, openCodes, openHex, open, code, -1);
+            } else {
+                out.append(SECTION).append(code);
+                if (code == 'r') {
+                    open = 0;
+                } else if (open < MAX_OPEN_TAGS) {
+                    openCodes[open] = code;
+                    openHex[open++] = -1;
+                }
+            }
+            i = end + 1;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Drop the innermost matching open style, then reset and re-apply the styles that remain open.
+     */
+    private static int close(StringBuilder out, String message, char[] openCodes, int[] openHex, int open, char code, int hexNameStart) {
+        int match = -1;
+        for (int k = open - 1; k >= 0; k--) {
+            boolean same = hexNameStart >= 0
+                    ? openCodes[k] == 0 && message.regionMatches(true, openHex[k], message, hexNameStart + 1, 6)
+                    : openCodes[k] == code;
+            if (same) {
+                match = k;
+                break;
+            }
+        }
+        if (match < 0) {
+            return open;
+        }
+        System.arraycopy(openCodes, match + 1, openCodes, match, open - match - 1);
+        System.arraycopy(openHex, match + 1, openHex, match, open - match - 1);
+        open--;
+        out.append(SECTION).append('r');
+        for (int k = 0; k < open; k++) {
+            if (openCodes[k] == 0) {
+                appendHex(out, message, openHex[k]);
+            } else {
+                out.append(SECTION).append(openCodes[k]);
+            }
+        }
+        return open;
+    }
+
+    private char lookup(String message, int from, int to) {
+        int node = 0;
+        for (int i = from; i < to; i++) {
+            int letter = letterIndex(Character.toLowerCase(message.charAt(i)));
+            if (letter < 0) {
+                return 0;
+            }
+            node = children[node][letter];
+            if (node == 0) {
+                return 0;
+            }
+        }
+        return codes[node];
+    }
+
+    private static int letterIndex(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        return c == '_' ? 26 : -1;
+    }
+
+    private static boolean isHex(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (Character.digit(s.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Bukkit hex format: §x§r§r§g§g§b§b */
+    private static void appendHex(StringBuilder out, String message, int hexStart) {
+        out.append(SECTION).append('x');
+        for (int k = 0; k < 6; k++) {
+            out.append(SECTION).append(Character.toLowerCase(message.charAt(hexStart + k)));
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.restartannouncer.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only log of restart events (restarts.bin): a 16-byte header followed by one fixed 32-byte record per event.
+ * Records are only ever appended, so they are in time order and record i sits at a known offset. Reads map the file
+ * read-only and touch just the records they need: the newest n for the history, and a binary-searched tail for stats.
+ */
+public final class RestartJournal {
+
+    public enum Event {
+        /** Plugin enabled; carries the downtime since the previous SHUTDOWN, if there was one. */
+        BOOT,
+        /** Countdown finished and the shutdown command was issued. */
+        SHUTDOWN,
+        /** Countdown stopped before it finished. */
+        CANCELLED
+    }
+
+    public enum Trigger {
+        NONE,
+        /** /announcer start */
+        MANUAL,
+        /** Scheduled restart at its planned time. */
+        SCHEDULED,
+        /** Scheduled restart brought forward by the flexible window or restart-when-empty. */
+        SCHEDULED_EARLY
+    }
+
+    /** The shutdown waited for a running backup; {@link Entry#gateWaitSeconds()} says how long. */
+    public static final int FLAG_BACKUP_DELAYED = 1;
+    /** The shutdown waited for restart gates registered by other plugins. */
+    public static final int FLAG_GATE_DELAYED = 2;
+
+    private static final int FILE_MAGIC = 0x5241524A; // "RARJ"
+    private static final int FILE_VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 32;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final long WEEK_MILLIS = 7 * DAY_MILLIS;
+
+    /**
+     * One record. {@code countdownSeconds} is how long the countdown ran, {@code players} the online count at the
+     * event, {@code downtimeMillis} (BOOT only) the time since the previous SHUTDOWN, or -1 when unknown.
+     */
+    public record Entry(long timeMillis, Event event, Trigger trigger, int flags, int countdownSeconds, int players,
+                        int gateWaitSeconds, long downtimeMillis) {
+
+        public boolean isBackupDelayed() {
+            return (flags & FLAG_BACKUP_DELAYED) != 0;
+        }
+
+        public boolean isGateDelayed() {
+            return (flags & FLAG_GATE_DELAYED) != 0;
+        }
+    }
+
+    /**
+     * Aggregates over the records since a cut-off. {@code meanDowntimeMillis} is -1 when no BOOT in range had a
+     * known downtime.
+     */
+    public record Stats(int restarts, int cancelled, double restartsPerWeek, long meanDowntimeMillis, int meanCountdownSeconds) {
+    }
+
+    private final File file;
+
+    public RestartJournal(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Append one record, writing the header first if the file is new. A torn record left by a crash is cut off so the
+     * new one starts on a record boundary.
+     */
+    public synchronized void append(Entry entry) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(RECORD_BYTES).putInt(0).flip();
+                channel.truncate(0);
+                channel.write(header, 0);
+                size = HEADER_BYTES;
+            } else {
+                checkHeader(channel);
+                long whole = HEADER_BYTES + (size - HEADER_BYTES) / RECORD_BYTES * RECORD_BYTES;
+                if (whole != size) {
+                    channel.truncate(whole);
+                    size = whole;
+                }
+            }
+            ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+            record.putLong(entry.timeMillis())
+                    .put((byte) entry.event().ordinal())
+                    .put((byte) entry.trigger().ordinal())
+                    .putShort((short) entry.flags())
+                    .putInt(entry.countdownSeconds())
+                    .putInt(entry.players())
+                    .putInt(entry.gateWaitSeconds())
+                    .putLong(entry.downtimeMillis())
+                    .flip();
+            channel.write(record, size);
+            channel.force(false);
+        }
+    }
+
+    /** Newest record, or null if the journal is empty or missing. */
+    public synchronized Entry last() throws IOException {
+        List<Entry> latest = latest(1);
+        return latest.isEmpty() ? null : latest.get(0);
+    }
+
+    /** Up to {@code n} newest records, newest first. */
+    public synchronized List<Entry> latest(int n) throws IOException {
+        List<Entry> result = new ArrayList<>();
+        MappedByteBuffer map = map();
+        if (map == null) {
+            return result;
+        }
+        int count = count(map);
+        for (int i = count - 1; i >= 0 && result.size() < n; i--) {
+            result.add(read(map, i));
+        }
+        return result;
+    }
+
+    /** Aggregates over the records at or after {@code sinceMillis}; {@code nowMillis} closes the window for the weekly rate. */
+    public synchronized Stats stats(long sinceMillis, long nowMillis) throws IOException {
+        MappedByteBuffer map = map();
+        if (map == null) {
+            return new Stats(0, 0, 0, -1, 0);
+        }
+        int count = count(map);
+        int from = firstAtOrAfter(map, count, sinceMillis);
+        int restarts = 0;
+        int cancelled = 0;
+        long countdownTotal = 0;
+        long downtimeTotal = 0;
+        int downtimes = 0;
+        long first = -1;
+        for (int i = from; i < count; i++) {
+            int base = HEADER_BYTES + i * RECORD_BYTES;
+            long time = map.getLong(base);
+            if (first < 0) {
+                first = time;
+            }
+            Event event = eventAt(map.get(base + 8));
+            if (event == Event.SHUTDOWN) {
+                restarts++;
+                countdownTotal += map.getInt(base + 12);
+            } else if (event == Event.CANCELLED) {
+                cancelled++;
+            } else if (event == Event.BOOT) {
+                long downtime = map.getLong(base + 24);
+                if (downtime >= 0) {
+                    downtimeTotal += downtime;
+                    downtimes++;
+                }
+            }
+        }
+        // Rate over the span actually covered (at least a day), so a journal younger than the window isn't diluted
+        long span = first < 0 ? 0 : nowMillis - Math.max(sinceMillis, first);
+        double perWeek = restarts * (double) WEEK_MILLIS / Math.max(span, DAY_MILLIS);
+        return new Stats(restarts, cancelled, perWeek,
+                downtimes == 0 ? -1 : downtimeTotal / downtimes,
+                restarts == 0 ? 0 : (int) (countdownTotal / restarts));
+    }
+
+    /** Read-only map of the whole file, or null if it is missing or has no header yet. */
+    private MappedByteBuffer map() throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                return null;
+            }
+            checkHeader(channel);
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static void checkHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, 0);
+        header.flip();
+        int magic = header.getInt();
+        int version = header.getInt();
+        int recordBytes = header.getInt();
+        if (magic != FILE_MAGIC) {
+            throw new IOException("not a restart journal");
+        }
+        if (version != FILE_VERSION || recordBytes != RECORD_BYTES) {
+            throw new IOException("unsupported restart journal version " + version);
+        }
+    }
+
+    private static int count(MappedByteBuffer map) {
+        return (map.capacity() - HEADER_BYTES) / RECORD_BYTES;
+    }
+
+    /** Index of the first record with time >= {@code millis} (records are appended in time order). */
+    private static int firstAtOrAfter(MappedByteBuffer map, int count, long millis) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (map.getLong(HEADER_BYTES + mid * RECORD_BYTES) < millis) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static Entry read(MappedByteBuffer map, int index) {
+        int base = HEADER_BYTES + index * RECORD_BYTES;
+        byte trigger = map.get(base + 9);
+        return new Entry(
+                map.getLong(base),
+                eventAt(map.get(base + 8)),
+                trigger >= 0 && trigger < Trigger.values().length ? Trigger.values()[trigger] : Trigger.NONE,
+                map.getShort(base + 10),
+                map.getInt(base + 12),
+                map.getInt(base + 16),
+                map.getInt(base + 20),
+                map.getLong(base + 24));
+    }
+
+    private static Event eventAt(byte ordinal) {
+        return ordinal >= 0 && ordinal < Event.values().length ? Event.values()[ordinal] : Event.CANCELLED;
+    }
+}
@@ -0,0 +1,114 @@
+package com.restartannouncer.util;
+
+import com.restartannouncer.RestartAnnouncerPlugin;
+import com.restartannouncer.config.MigrationState;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind saves for files changed by commands (config.yml, messages.yml). Callers change the in-memory config
+ * and call {@link #save}; changes within the coalescing delay become one snapshot, taken on the main thread, and one
+ * write on a background thread via a temp file and atomic rename. {@link #flush()} in onDisable writes what is left.
+ * The hash of each file's last write is kept so the hot reload watcher can tell our own saves from edits.
+ */
+public class WriteBehindWriter {
+
+    private static final long COALESCE_MILLIS = 1000L;
+
+    private final RestartAnnouncerPlugin plugin;
+    private final ScheduledThreadPoolExecutor executor;
+    /** Files waiting for their snapshot; main thread only. */
+    private final Map<File, Supplier<String>> dirty = new LinkedHashMap<>();
+    private boolean snapshotScheduled;
+    /** Content hash of the last successful write per file. */
+    private final Map<Path, String> writtenHashes = new ConcurrentHashMap<>();
+
+    public WriteBehindWriter(RestartAnnouncerPlugin plugin) {
+        this.plugin = plugin;
+        this.executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "RestartAnnouncer-Writer");
+            t.setDaemon(true);
+            return t;
+        });
+        // On shutdown, flush() takes over anything still waiting for its delay
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Main thread. Mark {@code target} for saving; {@code snapshot} is called once on the main thread when the
+     * coalescing delay ends, so it should serialize the current in-memory state.
+     */
+    public void save(File target, Supplier<String> snapshot) {
+        dirty.put(target, snapshot);
+        if (snapshotScheduled || executor.isShutdown()) {
+            return;
+        }
+        snapshotScheduled = true;
+        executor.schedule(() -> plugin.runSync(this::snapshotAndWrite), COALESCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void snapshotAndWrite() {
+        snapshotScheduled = false;
+        if (executor.isShutdown()) {
+            return;
+        }
+        for (Map.Entry<Path, String> write : takeSnapshots().entrySet()) {
+            executor.execute(() -> write(write.getKey(), write.getValue()));
+        }
+    }
+
+    private Map<Path, String> takeSnapshots() {
+        Map<Path, String> snapshots = new LinkedHashMap<>();
+        for (Map.Entry<File, Supplier<String>> entry : dirty.entrySet()) {
+            snapshots.put(entry.getKey().toPath(), entry.getValue().get());
+        }
+        dirty.clear();
+        return snapshots;
+    }
+
+    /**
+     * Main thread, from onDisable. Waits for writes already in progress, then writes pending changes directly.
+     */
+    public void flush() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out waiting for pending file writes");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Map.Entry<Path, String> write : takeSnapshots().entrySet()) {
+            write(write.getKey(), write.getValue());
+        }
+    }
+
+    /** True if {@code contentHash} (see {@link MigrationState#sha256}) is what this writer last wrote to {@code file}. */
+    public boolean isOwnWrite(File file, String contentHash) {
+        return contentHash.equals(writtenHashes.get(file.toPath().toAbsolutePath()));
+    }
+
+    private void write(Path target, String content) {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            // Recorded before the rename so the watcher never sees the new file without its hash
+            writtenHashes.put(target.toAbsolutePath(), MigrationState.sha256(bytes));
+            Files.write(tmp, bytes);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to save " + target.getFileName() + ": " + e.getMessage());
+        }
+    }
+}
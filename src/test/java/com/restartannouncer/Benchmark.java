@@ -0,0 +1,36 @@
+package com.restartannouncer;
+
+/**
+ * Timing loop shared by the *Benchmark mains under src/test. They are not unit tests (surefire does not pick them up);
+ * run one after {@code mvn test-compile} with the test classpath, e.g.
+ * {@code java -cp target/classes:target/test-classes:<bukkit api> com.restartannouncer.util.LegacyTagTranslatorBenchmark}.
+ */
+public final class Benchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    public interface Task {
+        /** One round; the result is kept so the work is not optimized away. */
+        Object run() throws Exception;
+    }
+
+    private static volatile Object sink;
+
+    private Benchmark() {
+    }
+
+    /** Fastest of {@value #ROUNDS} rounds after {@value #WARMUP_ROUNDS} warm-up rounds, in nanoseconds. */
+    public static long bestNanos(Task task) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink = task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long started = System.nanoTime();
+            sink = task.run();
+            best = Math.min(best, System.nanoTime() - started);
+        }
+        return best;
+    }
+}
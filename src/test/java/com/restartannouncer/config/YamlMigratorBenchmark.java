@@ -0,0 +1,109 @@
+package com.restartannouncer.config;
+
+import com.restartannouncer.Benchmark;
+import org.bukkit.plugin.Plugin;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link YamlMigrator#migrate()} on a large generated file, once when it is a version behind (read, merge, rewrite)
+ * and once when it is already current. The defaults have {@code sections} sections of {@code keys} commented keys
+ * (arguments, default 1000 x 20); the stale copy has every value changed, misses one key in twenty and has a
+ * deprecated key per section.
+ */
+public final class YamlMigratorBenchmark {
+
+    private static final String FILE_NAME = "config.yml";
+
+    private YamlMigratorBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int sections = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int keys = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        String defaults = defaults(sections, keys);
+        String user = user(sections, keys);
+
+        File dataFolder = Files.createTempDirectory("yaml-migrator-bench").toFile();
+        File userFile = new File(dataFolder, FILE_NAME);
+        YamlMigrator migrator = new YamlMigrator(plugin(dataFolder, defaults), FILE_NAME, "config_version");
+        System.out.printf("%d sections x %d keys: defaults %d KB, user file %d KB%n", sections, keys,
+                defaults.length() / 1024, user.length() / 1024);
+        try {
+            long stale = Benchmark.bestNanos(() -> {
+                Files.writeString(userFile.toPath(), user, StandardCharsets.UTF_8);
+                return migrator.migrate();
+            });
+            System.out.printf("%-20s %8.2f ms%n", "migrate (stale)", stale / 1e6);
+            long current = Benchmark.bestNanos(migrator::migrate);
+            System.out.printf("%-20s %8.2f ms%n", "migrate (current)", current / 1e6);
+        } finally {
+            for (File file : dataFolder.listFiles()) {
+                file.delete();
+            }
+            dataFolder.delete();
+        }
+    }
+
+    private static String defaults(int sections, int keys) {
+        StringBuilder out = new StringBuilder("config_version: 2\n\n");
+        for (int s = 0; s < sections; s++) {
+            out.append("# Section ").append(s).append('\n');
+            out.append("section-").append(s).append(":\n");
+            for (int k = 0; k < keys; k++) {
+                out.append("  # What key ").append(k).append(" does\n");
+                out.append("  key-").append(k).append(": ").append(value(k, false)).append('\n');
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    private static String user(int sections, int keys) {
+        StringBuilder out = new StringBuilder("config_version: 1\n");
+        for (int s = 0; s < sections; s++) {
+            out.append("section-").append(s).append(":\n");
+            for (int k = 0; k < keys; k++) {
+                if ((s * keys + k) % 20 != 0) {
+                    out.append("  key-").append(k).append(": ").append(value(k, true)).append('\n');
+                }
+            }
+            out.append("  old-key: true\n");
+        }
+        return out.toString();
+    }
+
+    /** A mix of the scalar kinds found in config.yml; the user's copy differs from the default. */
+    private static String value(int k, boolean user) {
+        return switch (k % 4) {
+            case 0 -> user ? "false" : "true";
+            case 1 -> String.valueOf(user ? k * 7 : k);
+            case 2 -> user ? "\"<red>Changed " + k + "\"" : "\"<gold>Default " + k + "\"";
+            default -> user ? "[a, b, c]" : "[]";
+        };
+    }
+
+    /** Just enough of a plugin for the migrator: data folder, logger and the jar copy of the file. */
+    private static Plugin plugin(File dataFolder, String defaults) {
+        Logger logger = Logger.getLogger("YamlMigratorBenchmark");
+        logger.setLevel(Level.WARNING);
+        byte[] resource = defaults.getBytes(StandardCharsets.UTF_8);
+        return (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(), new Class<?>[]{Plugin.class},
+                (proxy, method, methodArgs) -> switch (method.getName()) {
+                    case "getDataFolder" -> dataFolder;
+                    case "getLogger" -> logger;
+                    case "getResource" -> FILE_NAME.equals(methodArgs[0]) ? new ByteArrayInputStream(resource) : null;
+                    case "getName", "toString" -> "YamlMigratorBenchmark";
+                    case "isEnabled" -> true;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == methodArgs[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
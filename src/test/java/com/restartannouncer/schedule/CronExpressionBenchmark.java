@@ -0,0 +1,45 @@
+package com.restartannouncer.schedule;
+
+import com.restartannouncer.Benchmark;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@link CronExpression#nextAfter} over 10,000 consecutive occurrences for a few typical and a few sparse expressions.
+ */
+public final class CronExpressionBenchmark {
+
+    private static final int CALLS = 10_000;
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private static final String[] EXPRESSIONS = {
+        "0 4 * * *",          // daily
+        "*/15 * * * *",       // every quarter hour
+        "30 3 * * MON-FRI",   // weekdays
+        "0 6 1-7 * SUN",      // day-of-month OR day-of-week
+        "0 5 13 * FRI",       // the 13th or any Friday
+        "0 0 29 2 *",         // leap days only
+    };
+
+    private CronExpressionBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-20s %12s %14s%n", "expression", "ns/call", "last match");
+        for (String expression : EXPRESSIONS) {
+            CronExpression cron = CronExpression.parse(expression);
+            long best = Benchmark.bestNanos(() -> run(cron));
+            LocalDateTime last = run(cron);
+            System.out.printf("%-20s %12d %14s%n", expression, best / CALLS, last == null ? "none" : last.toLocalDate());
+        }
+    }
+
+    /** {@value #CALLS} consecutive occurrences from {@link #START}; returns the last. */
+    private static LocalDateTime run(CronExpression cron) {
+        LocalDateTime t = START;
+        for (int i = 0; i < CALLS && t != null; i++) {
+            t = cron.nextAfter(t);
+        }
+        return t;
+    }
+}
@@ -0,0 +1,79 @@
+package com.restartannouncer.util;
+
+import com.restartannouncer.Benchmark;
+
+/**
+ * {@link LegacyTagTranslator} against the chained {@code String.replace} calls formatMessage used before it, on a mix of
+ * typical messages: uncached, cached (the same messages again) and the old way.
+ */
+public final class LegacyTagTranslatorBenchmark {
+
+    private static final int CALLS = 100_000;
+
+    private static final String[] MESSAGES = {
+        "<red>Server restarting in <yellow>%time%<red>!",
+        "<gold><bold>[Restart]</bold></gold> <gray>The server restarts in <white>%time%</white>. Save your work.",
+        "<green>Restart cancelled.",
+        "<#ff8800>Scheduled restart</#ff8800> <dark_gray>»</dark_gray> <aqua>%name%</aqua> <gray>at <white>%at%",
+        "<red>Usage: <yellow>/announcer <start|stop|status|reload> <gray>[args]",
+        "Plain text without any tags at all, which the translator returns as is",
+    };
+
+    private LegacyTagTranslatorBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LegacyTagTranslator translator = new LegacyTagTranslator();
+        report("translateUncached", () -> {
+            int length = 0;
+            for (int i = 0; i < CALLS; i++) {
+                length += translator.translateUncached(MESSAGES[i % MESSAGES.length]).length();
+            }
+            return length;
+        });
+        report("translate (cached)", () -> {
+            int length = 0;
+            for (int i = 0; i < CALLS; i++) {
+                length += translator.translate(MESSAGES[i % MESSAGES.length]).length();
+            }
+            return length;
+        });
+        report("chained replace", () -> {
+            int length = 0;
+            for (int i = 0; i < CALLS; i++) {
+                length += chainedReplace(MESSAGES[i % MESSAGES.length]).length();
+            }
+            return length;
+        });
+    }
+
+    private static void report(String label, Benchmark.Task task) throws Exception {
+        System.out.printf("%-20s %8d ns/message%n", label, Benchmark.bestNanos(task) / CALLS);
+    }
+
+    /** The formatMessage implementation the translator replaced; no closing tags or hex colors. */
+    private static String chainedReplace(String message) {
+        return message
+            .replace("<red>", "§c")
+            .replace("<dark_red>", "§4")
+            .replace("<blue>", "§b")
+            .replace("<dark_blue>", "§1")
+            .replace("<aqua>", "§b")
+            .replace("<dark_aqua>", "§3")
+            .replace("<green>", "§a")
+            .replace("<dark_green>", "§2")
+            .replace("<yellow>", "§e")
+            .replace("<gold>", "§6")
+            .replace("<purple>", "§d")
+            .replace("<dark_purple>", "§5")
+            .replace("<white>", "§f")
+            .replace("<gray>", "§7")
+            .replace("<dark_gray>", "§8")
+            .replace("<black>", "§0")
+            .replace("<bold>", "§l")
+            .replace("<italic>", "§o")
+            .replace("<underline>", "§n")
+            .replace("<strikethrough>", "§m")
+            .replace("<reset>", "§r");
+    }
+}